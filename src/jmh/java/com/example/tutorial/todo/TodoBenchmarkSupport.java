@@ -0,0 +1,59 @@
+package com.example.tutorial.todo;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import com.example.tutorial.TutorialApplication;
+
+final class TodoBenchmarkSupport {
+
+    private static final LocalDateTime BASE_CREATED_AT = LocalDateTime.of(2019, 9, 19, 0, 0, 0);
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private TodoBenchmarkSupport() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int tableSize) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TutorialApplication.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .properties("spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .run();
+        seed(context.getBean(JdbcTemplate.class), tableSize);
+        return context;
+    }
+
+    /**
+     * Fills the table with finished todos so that the unfinished limit never blocks a benchmark.
+     */
+    private static void seed(JdbcTemplate jdbcTemplate, int tableSize) {
+        String sql = "INSERT INTO todo(todo_title, finished, created_at) VALUES (?, true, ?)";
+        for (int from = 0; from < tableSize; from += INSERT_BATCH_SIZE) {
+            int start = from;
+            int size = Math.min(INSERT_BATCH_SIZE, tableSize - from);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setString(1, "benchmark todo " + (start + i));
+                    ps.setTimestamp(2, Timestamp.valueOf(BASE_CREATED_AT.plusSeconds(start + i)));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+}
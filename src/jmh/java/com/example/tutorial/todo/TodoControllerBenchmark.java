@@ -0,0 +1,85 @@
+package com.example.tutorial.todo;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoControllerBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        context = TodoBenchmarkSupport.start(WebApplicationType.SERVLET, tableSize);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getTodos() throws Exception {
+        return mockMvc.perform(get("/todos")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getTodosPage() throws Exception {
+        return mockMvc.perform(get("/todos").param("limit", "100")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getTodo() throws Exception {
+        long todoId = ThreadLocalRandom.current().nextLong(1, tableSize + 1);
+        return mockMvc.perform(get("/todos/{todoId}", todoId)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult postPutDeleteTodo() throws Exception {
+        MvcResult created = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"todoTitle\":\"benchmark todo\"}")).andReturn();
+        long todoId = objectMapper.readValue(created.getResponse().getContentAsByteArray(), TodoResource.class)
+                .getTodoId();
+        mockMvc.perform(put("/todos/{todoId}", todoId)).andReturn();
+        return mockMvc.perform(delete("/todos/{todoId}", todoId)).andReturn();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the heap retained by tableSize todos held as a map of {@link Todo} objects, the shape of a fully cached
+ * table with every title read into its own String, against {@link InMemoryTodoRepository}. The retained size is
+ * measured once per trial from the used heap after full GCs and printed to the benchmark output; the score itself is
+ * findById latency on the loaded store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx4g", "-XX:+UseSerialGC" })
+@State(Scope.Benchmark)
+public class TodoFootprintBenchmark {
+
+    private static final int DISTINCT_TITLES = 10_000;
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2019, 9, 19, 0, 0);
+
+    @Param({ "objects", "compact" })
+    public String layout;
+
+    @Param({ "1000000" })
+    public int tableSize;
+
+    private Map<Long, Todo> todoMap;
+
+    private InMemoryTodoRepository todoRepository;
+
+    @Setup
+    public void setup() {
+        long before = usedHeap();
+        Random random = new Random(42);
+        if (layout.equals("objects")) {
+            todoMap = new HashMap<>();
+            for (long todoId = 1; todoId <= tableSize; todoId++) {
+                // a String per row, as read from a ResultSet
+                String title = new String(title(random.nextInt(DISTINCT_TITLES)));
+                todoMap.put(todoId, new Todo(todoId, title, todoId % 2 == 0,
+                        CREATED_AT.plusNanos(todoId * 1_000_000), todoId));
+            }
+        } else {
+            todoRepository = new InMemoryTodoRepository();
+            for (long todoId = 1; todoId <= tableSize; todoId++) {
+                todoRepository.createWithId(new Todo(todoId, title(random.nextInt(DISTINCT_TITLES)),
+                        todoId % 2 == 0, CREATED_AT.plusNanos(todoId * 1_000_000)));
+            }
+        }
+        System.out.printf("Retained heap (%s): %.1f bytes per todo%n", layout,
+                (double) (usedHeap() - before) / tableSize);
+    }
+
+    @Benchmark
+    public Todo findById() {
+        long todoId = ThreadLocalRandom.current().nextLong(1, tableSize + 1);
+        return layout.equals("objects") ? todoMap.get(todoId) : todoRepository.findById(todoId).orElseThrow();
+    }
+
+    private static String title(int index) {
+        return "todo " + Integer.toString(index, 36);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tutorial.todo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({ "1000", "100000" })
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+
+    private TodoRepository todoRepository;
+
+    private TodoCursor lastPageCursor;
+
+    @Setup
+    public void setup() {
+        context = TodoBenchmarkSupport.start(WebApplicationType.NONE, tableSize);
+        todoRepository = context.getBean(TodoRepository.class);
+        List<Todo> tail = todoRepository.findByCriteria(TodoCriteria.empty(), null, tableSize - PAGE_SIZE);
+        lastPageCursor = TodoCursor.of(tail.get(tail.size() - 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Todo findById() {
+        return todoRepository.findById(ThreadLocalRandom.current().nextLong(1, tableSize + 1)).orElseThrow();
+    }
+
+    @Benchmark
+    public Collection<Todo> findAll() {
+        return todoRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Todo> findFirstPage() {
+        return todoRepository.findByCriteria(TodoCriteria.empty(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Todo> findLastPage() {
+        return todoRepository.findByCriteria(TodoCriteria.empty(), lastPageCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long countByFinished() {
+        return todoRepository.countByFinished(false);
+    }
+}
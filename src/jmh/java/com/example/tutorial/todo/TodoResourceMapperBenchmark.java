@@ -0,0 +1,61 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.github.dozermapper.core.DozerBeanMapperBuilder;
+import com.github.dozermapper.core.Mapper;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoResourceMapperBenchmark {
+
+    private Mapper beanMapper;
+
+    private TodoResourceMapper todoResourceMapper;
+
+    private Todo todo;
+
+    private TodoResource todoResource;
+
+    @Setup
+    public void setup() {
+        beanMapper = DozerBeanMapperBuilder.buildDefault();
+        todoResourceMapper = new TodoResourceMapper();
+        todo = new Todo(1L, "sample todo 1", false, LocalDateTime.of(2019, 9, 19, 1, 1, 1));
+        todoResource = todoResourceMapper.toResource(todo);
+    }
+
+    @Benchmark
+    public TodoResource dozerToResource() {
+        return beanMapper.map(todo, TodoResource.class);
+    }
+
+    @Benchmark
+    public TodoResource mapperToResource() {
+        return todoResourceMapper.toResource(todo);
+    }
+
+    @Benchmark
+    public Todo dozerToTodo() {
+        return beanMapper.map(todoResource, Todo.class);
+    }
+
+    @Benchmark
+    public Todo mapperToTodo() {
+        return todoResourceMapper.toTodo(todoResource);
+    }
+}
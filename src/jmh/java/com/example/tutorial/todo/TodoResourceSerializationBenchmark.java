@@ -0,0 +1,72 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoResourceSerializationBenchmark {
+
+    @Param({ "100", "10000" })
+    public int tableSize;
+
+    private ObjectMapper objectMapper;
+
+    private TodoResourceMapper todoResourceMapper;
+
+    private List<Todo> todos;
+
+    private List<TodoResource> todoResources;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        todoResourceMapper = new TodoResourceMapper();
+        todos = new ArrayList<>(tableSize);
+        LocalDateTime createdAt = LocalDateTime.of(2019, 9, 19, 0, 0, 0);
+        for (int i = 0; i < tableSize; i++) {
+            todos.add(new Todo((long) i, "benchmark todo " + i, i % 2 == 0, createdAt.plusSeconds(i)));
+        }
+        todoResources = todoResourceMapper.toResources(todos);
+    }
+
+    @Benchmark
+    public List<TodoResource> map() {
+        return todoResourceMapper.toResources(todos);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todoResources);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todoResourceMapper.toResources(todos));
+    }
+
+    @Benchmark
+    public byte[] serializeTodoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new TodoList(todos));
+    }
+}
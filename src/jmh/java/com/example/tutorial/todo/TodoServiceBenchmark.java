@@ -0,0 +1,104 @@
+package com.example.tutorial.todo;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Each write is measured on its own; the todo it needs (or leaves behind) is prepared and
+ * cleaned up outside the measured region so the unfinished limit is never reached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Context {
+
+        @Param({ "1000", "100000" })
+        public int tableSize;
+
+        ConfigurableApplicationContext context;
+
+        TodoService todoService;
+
+        TodoRepository todoRepository;
+
+        @Setup
+        public void setup() {
+            context = TodoBenchmarkSupport.start(WebApplicationType.NONE, tableSize);
+            todoService = context.getBean(TodoService.class);
+            todoRepository = context.getBean(TodoRepository.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+
+        Todo newTodo() {
+            return new Todo(null, "benchmark todo", false, null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CreatedTodo {
+
+        Todo todo;
+
+        @TearDown(Level.Invocation)
+        public void tearDown(Context context) {
+            context.todoService.delete(todo.getTodoId());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ExistingTodo {
+
+        Todo todo;
+
+        @Setup(Level.Invocation)
+        public void setup(Context context) {
+            todo = context.todoService.create(context.newTodo());
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown(Context context) {
+            if (context.todoRepository.findById(todo.getTodoId()).isPresent()) {
+                context.todoService.delete(todo.getTodoId());
+            }
+        }
+    }
+
+    @Benchmark
+    public Todo create(Context context, CreatedTodo createdTodo) {
+        createdTodo.todo = context.todoService.create(context.newTodo());
+        return createdTodo.todo;
+    }
+
+    @Benchmark
+    public Todo finish(Context context, ExistingTodo existingTodo) {
+        return context.todoService.finish(existingTodo.todo.getTodoId());
+    }
+
+    @Benchmark
+    public void delete(Context context, ExistingTodo existingTodo) {
+        context.todoService.delete(existingTodo.todo.getTodoId());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tutorial.todo;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TodoTitleIndexBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int WORD_COUNT = 5000;
+
+    private static final String[] JAPANESE_WORDS = { "買い物", "牛乳", "請求書", "会議", "資料", "掃除", "洗濯", "予約",
+            "支払い", "返信", "提出", "確認", "準備", "連絡", "報告", "更新", "整理", "修理", "申請", "送付" };
+
+    @Param({ "100000", "1000000" })
+    public int tableSize;
+
+    private TodoTitleIndex todoTitleIndex;
+
+    @Setup
+    public void setup() {
+        todoTitleIndex = new TodoTitleIndex();
+        Random random = new Random(42);
+        for (long todoId = 1; todoId <= tableSize; todoId++) {
+            String title = word(random.nextInt(WORD_COUNT)) + " "
+                    + JAPANESE_WORDS[random.nextInt(JAPANESE_WORDS.length)]
+                    + JAPANESE_WORDS[random.nextInt(JAPANESE_WORDS.length)] + " " + todoId;
+            todoTitleIndex.add(new Todo(todoId, title, false, null));
+        }
+    }
+
+    // about tableSize / 5000 hits
+    @Benchmark
+    public TodoTitleIndex.Hits searchToken() {
+        return todoTitleIndex.search(word(1234), 0, PAGE_SIZE);
+    }
+
+    // about tableSize / 5000 / 20 hits
+    @Benchmark
+    public TodoTitleIndex.Hits searchTokenAndJapanese() {
+        return todoTitleIndex.search(word(1234) + " 請求", 0, PAGE_SIZE);
+    }
+
+    // one hit
+    @Benchmark
+    public TodoTitleIndex.Hits searchId() {
+        return todoTitleIndex.search(String.valueOf(tableSize / 2), 0, PAGE_SIZE);
+    }
+
+    // about tableSize / 400 hits, matched inside a compound
+    @Benchmark
+    public TodoTitleIndex.Hits searchJapaneseSubstring() {
+        return todoTitleIndex.search("乳請", 0, PAGE_SIZE);
+    }
+
+    private static String word(int index) {
+        return "task" + Integer.toString(index, 36);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tutorial.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histogram and status code counts of one endpoint. Latencies are taken from the time a request was due to
+ * be sent, not from when it actually was, so that a stalled server shows up in the percentiles instead of silently
+ * lowering the arrival rate.
+ */
+class EndpointStats {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Histogram latencies = new ConcurrentHistogram(3);
+
+    // 0 stands for requests that failed without a response
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    void record(int statusCode, long latencyNanos) {
+        latencies.recordValue(Math.max(latencyNanos, 1));
+        statusCodes.computeIfAbsent(statusCode, key -> new LongAdder()).increment();
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    Map<String, Object> toReport(double seconds) {
+        Map<String, Long> statuses = new TreeMap<>();
+        statusCodes.forEach((statusCode, count) -> statuses.put(String.valueOf(statusCode), count.sum()));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", latencies.getMean() / NANOS_PER_MILLI);
+        latency.put("p50", percentileMillis(50));
+        latency.put("p90", percentileMillis(90));
+        latency.put("p99", percentileMillis(99));
+        latency.put("p999", percentileMillis(99.9));
+        latency.put("max", latencies.getMaxValue() / NANOS_PER_MILLI);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", count());
+        report.put("throughputPerSecond", count() / seconds);
+        report.put("statusCodes", statuses);
+        report.put("latencyMillis", latency);
+        return report;
+    }
+}
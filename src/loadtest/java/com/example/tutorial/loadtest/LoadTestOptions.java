@@ -0,0 +1,100 @@
+package com.example.tutorial.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+import com.example.tutorial.loadtest.TodoWorkload.Operation;
+import lombok.Getter;
+
+/**
+ * Options given as key=value arguments, e.g. {@code rate=500 duration=1m mix=list:50,get:30,post:10,put:5,delete:5}.
+ */
+@Getter
+class LoadTestOptions {
+
+    // started in-process when not set
+    private String url;
+
+    private String profiles = "";
+
+    // arrivals per second, independent of how fast responses come back
+    private double rate = 200;
+
+    private boolean poisson = true;
+
+    private Duration duration = Duration.ofSeconds(30);
+
+    private Duration warmup = Duration.ofSeconds(5);
+
+    private final Map<Operation, Integer> mix = parseMix("list:30,get:30,post:15,put:15,delete:10");
+
+    private int pageSize = 20;
+
+    // has to match MAX_UNFINISHED_COUNT of TodoServiceImpl
+    private int maxUnfinished = 5;
+
+    private int maxInFlight = 1000;
+
+    private Path report = Path.of("target", "loadtest-report.json");
+
+    static LoadTestOptions parse(String... args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index < 0) {
+                throw new IllegalArgumentException("Expected key=value but was: " + arg);
+            }
+            String value = arg.substring(index + 1);
+            switch (arg.substring(0, index)) {
+                case "url":
+                    options.url = value;
+                    break;
+                case "profiles":
+                    options.profiles = value;
+                    break;
+                case "rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "arrival":
+                    options.poisson = !"constant".equals(value);
+                    break;
+                case "duration":
+                    options.duration = DurationStyle.detectAndParse(value);
+                    break;
+                case "warmup":
+                    options.warmup = DurationStyle.detectAndParse(value);
+                    break;
+                case "mix":
+                    options.mix.clear();
+                    options.mix.putAll(parseMix(value));
+                    break;
+                case "pageSize":
+                    options.pageSize = Integer.parseInt(value);
+                    break;
+                case "maxUnfinished":
+                    options.maxUnfinished = Integer.parseInt(value);
+                    break;
+                case "maxInFlight":
+                    options.maxInFlight = Integer.parseInt(value);
+                    break;
+                case "report":
+                    options.report = Path.of(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] weight = entry.split(":");
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.tutorial.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import com.example.tutorial.TutorialApplication;
+import com.example.tutorial.loadtest.TodoWorkload.Operation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Open-model load generator for the /todos API. Requests are sent at the configured arrival rate (Poisson arrivals by
+ * default) whether or not earlier ones have completed, so a slow server builds up in-flight requests and latency
+ * rather than being offered less load. Arrivals are dropped, and counted, only past maxInFlight. Without a url the
+ * application is started in this JVM on a random port.
+ */
+public class TodoLoadGenerator {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+
+    private final URI baseUri;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final TodoWorkload workload;
+
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder dropped = new LongAdder();
+
+    TodoLoadGenerator(URI baseUri, LoadTestOptions options) {
+        this.baseUri = baseUri;
+        this.options = options;
+        this.workload = new TodoWorkload(baseUri, options, objectMapper);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        URI baseUri;
+        if (options.getUrl() == null) {
+            context = new SpringApplicationBuilder(TutorialApplication.class)
+                    .logStartupInfo(false)
+                    .profiles(options.getProfiles().isEmpty() ? new String[0] : options.getProfiles().split(","))
+                    .properties("spring.main.banner-mode=off",
+                            "logging.level.root=WARN",
+                            "server.port=0")
+                    .run();
+            baseUri = URI.create("http://localhost:"
+                    + ((WebServerApplicationContext) context).getWebServer().getPort());
+        } else {
+            baseUri = URI.create(options.getUrl());
+        }
+        try {
+            new TodoLoadGenerator(baseUri, options).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    void run() throws IOException, InterruptedException {
+        workload.prepare(httpClient);
+        Instant startedAt = Instant.now();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long start = System.nanoTime();
+        long measuredFrom = start + options.getWarmup().toNanos();
+        long end = measuredFrom + options.getDuration().toNanos();
+        for (long due = start; due < end; due += nextInterval(meanIntervalNanos)) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(due, due >= measuredFrom);
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        report(startedAt);
+    }
+
+    private long nextInterval(double meanIntervalNanos) {
+        if (!options.isPoisson()) {
+            return (long) meanIntervalNanos;
+        }
+        return (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+    }
+
+    private void send(long due, boolean measured) {
+        if (inFlight.get() >= options.getMaxInFlight()) {
+            if (measured) {
+                dropped.increment();
+            }
+            return;
+        }
+        TodoWorkload.Call call = workload.next();
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(call.getRequest(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - due;
+                    int statusCode = (response == null) ? 0 : response.statusCode();
+                    try {
+                        workload.complete(call, statusCode, (response == null) ? null : response.body());
+                        if (measured) {
+                            stats.get(call.getOperation()).record(statusCode, latency);
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+    }
+
+    private void report(Instant startedAt) throws IOException {
+        double seconds = options.getDuration().toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long total = 0;
+        System.out.printf("%-24s %10s %10s %10s %10s %10s %10s%n", "endpoint", "requests", "req/s", "p50 ms",
+                "p99 ms", "p999 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            EndpointStats endpointStats = stats.get(operation);
+            total += endpointStats.count();
+            endpoints.put(operation.getEndpoint(), endpointStats.toReport(seconds));
+            System.out.printf("%-24s %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n", operation.getEndpoint(),
+                    endpointStats.count(), endpointStats.count() / seconds, endpointStats.percentileMillis(50),
+                    endpointStats.percentileMillis(99), endpointStats.percentileMillis(99.9),
+                    endpointStats.percentileMillis(100));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("url", baseUri.toString());
+        report.put("profiles", options.getProfiles());
+        report.put("arrival", options.isPoisson() ? "poisson" : "constant");
+        report.put("targetRatePerSecond", options.getRate());
+        report.put("warmupSeconds", options.getWarmup().getSeconds());
+        report.put("durationSeconds", seconds);
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.getMix().forEach((operation, weight) -> mix.put(operation.name().toLowerCase(), weight));
+        report.put("mix", mix);
+        report.put("requests", total);
+        report.put("throughputPerSecond", total / seconds);
+        report.put("dropped", dropped.sum());
+        report.put("endpoints", endpoints);
+        if (options.getReport().getParent() != null) {
+            Files.createDirectories(options.getReport().getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(options.getReport().toFile(), report);
+        System.out.printf("%d requests (%.1f/s), %d dropped. Report written to %s%n", total, total / seconds,
+                dropped.sum(), options.getReport());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.tutorial.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Picks the next request from the weighted mix and keeps track of the todos it created. Creating is capped by the
+ * unfinished limit: a POST reserves one of maxUnfinished slots and, when none is free, the oldest unfinished todo is
+ * finished instead, so that a long run keeps creating rather than collecting 409s. Finished todos are what DELETE
+ * removes; GET reads one of the recently created todos, which may already be gone (404).
+ */
+class TodoWorkload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final int RECENT_IDS = 4096;
+
+    private final URI todosUri;
+
+    private final LoadTestOptions options;
+
+    private final ObjectMapper objectMapper;
+
+    private final Operation[] wheel;
+
+    private final Deque<Long> unfinished = new ConcurrentLinkedDeque<>();
+
+    private final Deque<Long> finished = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger unfinishedSlots = new AtomicInteger();
+
+    private final AtomicLongArray recentIds = new AtomicLongArray(RECENT_IDS);
+
+    private final AtomicLong titleSequence = new AtomicLong();
+
+    private final AtomicLong recentCount = new AtomicLong();
+
+    TodoWorkload(URI baseUri, LoadTestOptions options, ObjectMapper objectMapper) {
+        this.todosUri = baseUri.resolve("/todos");
+        this.options = options;
+        this.objectMapper = objectMapper;
+        List<Operation> operations = new ArrayList<>();
+        for (Map.Entry<Operation, Integer> weight : options.getMix().entrySet()) {
+            for (int i = 0; i < weight.getValue(); i++) {
+                operations.add(weight.getKey());
+            }
+        }
+        this.wheel = operations.toArray(new Operation[0]);
+    }
+
+    /**
+     * Finishes the todos that are already unfinished (e.g. the sample rows) so that every slot is free at the start.
+     */
+    void prepare(HttpClient httpClient) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(todosUri + "?finished=false"))
+                .timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        List<Long> todoIds = new ArrayList<>();
+        for (JsonNode todo : objectMapper.readTree(response.body())) {
+            todoIds.add(todo.get("todoId").asLong());
+        }
+        if (!todoIds.isEmpty()) {
+            httpClient.send(HttpRequest.newBuilder(URI.create(todosUri + "/finish"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(todoIds)))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    Call next() {
+        Operation operation = wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+        if (operation == Operation.POST && reserveSlot()) {
+            String body = "{\"todoTitle\":\"load " + titleSequence.incrementAndGet() + "\"}";
+            return new Call(Operation.POST, null, request(todosUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+        }
+        if (operation == Operation.POST || operation == Operation.PUT) {
+            Long todoId = unfinished.poll();
+            if (todoId != null) {
+                return new Call(Operation.PUT, todoId, request(todoUri(todoId))
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build());
+            }
+        } else if (operation == Operation.DELETE) {
+            Long todoId = finished.poll();
+            if (todoId != null) {
+                return new Call(Operation.DELETE, todoId, request(todoUri(todoId)).DELETE().build());
+            }
+        } else if (operation == Operation.GET) {
+            int recent = (int) Math.min(recentCount.get(), RECENT_IDS);
+            if (recent > 0) {
+                long todoId = recentIds.get(ThreadLocalRandom.current().nextInt(recent));
+                return new Call(Operation.GET, todoId, request(todoUri(todoId)).GET().build());
+            }
+        }
+        return new Call(Operation.LIST, null,
+                request(URI.create(todosUri + "?limit=" + options.getPageSize())).GET().build());
+    }
+
+    /**
+     * Updates the bookkeeping from a response; statusCode is 0 if the request failed without one.
+     */
+    void complete(Call call, int statusCode, String body) {
+        switch (call.getOperation()) {
+            case POST:
+                if (statusCode == 201) {
+                    long todoId = readTodoId(body);
+                    unfinished.add(todoId);
+                    recentIds.set((int) (recentCount.getAndIncrement() % RECENT_IDS), todoId);
+                } else {
+                    unfinishedSlots.decrementAndGet();
+                }
+                break;
+            case PUT:
+                if (statusCode == 200 || statusCode == 409) {
+                    finished.add(call.getTodoId());
+                    unfinishedSlots.decrementAndGet();
+                } else if (statusCode == 404) {
+                    unfinishedSlots.decrementAndGet();
+                } else {
+                    unfinished.addFirst(call.getTodoId());
+                }
+                break;
+            case DELETE:
+                if (statusCode != 204 && statusCode != 404) {
+                    finished.add(call.getTodoId());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int slots = unfinishedSlots.get();
+            if (slots >= options.getMaxUnfinished()) {
+                return false;
+            }
+            if (unfinishedSlots.compareAndSet(slots, slots + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private long readTodoId(String body) {
+        try {
+            return objectMapper.readTree(body).get("todoId").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected POST response: " + body, e);
+        }
+    }
+
+    private URI todoUri(long todoId) {
+        return URI.create(todosUri + "/" + todoId);
+    }
+
+    private static HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    enum Operation {
+
+        LIST("GET /todos"),
+
+        GET("GET /todos/{todoId}"),
+
+        POST("POST /todos"),
+
+        PUT("PUT /todos/{todoId}"),
+
+        DELETE("DELETE /todos/{todoId}");
+
+        private final String endpoint;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Call {
+
+        private final Operation operation;
+
+        private final Long todoId;
+
+        private final HttpRequest request;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.tutorial.common.admission;
+
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admits at most as many concurrent /todos requests as the {@link AdmissionLimiter} of their kind allows, GET and HEAD
+ * requests against the read limit and everything else against the write limit. A request over the limit is answered
+ * with 503 and Retry-After right away instead of waiting for a Tomcat thread or a database connection. The permit of
+ * an asynchronous request (e.g. POST /todos) is held until the response has been completed.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_GAUGE_NAME = "todo.admission.limit";
+
+    static final String IN_FLIGHT_GAUGE_NAME = "todo.admission.in.flight";
+
+    static final String REJECTED_COUNTER_NAME = "todo.admission.rejected";
+
+    private final AdmissionLimiter readLimiter;
+
+    private final AdmissionLimiter writeLimiter;
+
+    private final Counter readRejected;
+
+    private final Counter writeRejected;
+
+    private final String retryAfter;
+
+    private final List<String> excludedPaths;
+
+    public AdmissionControlFilter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this.readLimiter = new AdmissionLimiter(properties.getRead());
+        this.writeLimiter = new AdmissionLimiter(properties.getWrite());
+        this.readRejected = register(readLimiter, "read", meterRegistry);
+        this.writeRejected = register(writeLimiter, "write", meterRegistry);
+        this.retryAfter = String.valueOf(Math.max(1, properties.getRetryAfter().getSeconds()));
+        this.excludedPaths = properties.getExcludedPaths();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return excludedPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        AdmissionLimiter limiter = read ? readLimiter : writeLimiter;
+        AdmissionLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            (read ? readRejected : writeRejected).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many concurrent requests");
+            return;
+        }
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(limiter, permit));
+            } else {
+                limiter.release(permit, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private static Counter register(AdmissionLimiter limiter, String type, MeterRegistry meterRegistry) {
+        Gauge.builder(LIMIT_GAUGE_NAME, limiter, AdmissionLimiter::getLimit)
+                .description("Current concurrency limit of /todos requests")
+                .tag("type", type)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE_NAME, limiter, AdmissionLimiter::getInFlight)
+                .description("Admitted /todos requests in progress")
+                .tag("type", type)
+                .register(meterRegistry);
+        return Counter.builder(REJECTED_COUNTER_NAME)
+                .description("/todos requests rejected with 503 over the concurrency limit")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static class ReleasingListener implements AsyncListener {
+
+        private final AdmissionLimiter limiter;
+
+        private final AdmissionLimiter.Permit permit;
+
+        ReleasingListener(AdmissionLimiter limiter, AdmissionLimiter.Permit permit) {
+            this.limiter = limiter;
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            int status = ((HttpServletResponse) event.getSuppliedResponse()).getStatus();
+            limiter.release(permit, status >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tutorial.common.admission;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.admission")
+public class AdmissionControlProperties {
+
+    private boolean enabled = false;
+
+    private List<String> urlPatterns = List.of("/todos", "/todos/*");
+
+    // long-running downloads and streams say nothing about overload and would only hold a permit for their whole
+    // duration
+    private List<String> excludedPaths = List.of("/todos/export", "/todos/stream");
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Limit read = new Limit();
+
+    private Limit write = new Limit();
+
+    @Getter
+    @Setter
+    public static class Limit {
+
+        private int initialLimit = 20;
+
+        private int minLimit = 2;
+
+        private int maxLimit = 200;
+
+        // a request slower than this counts as a sign of overload, like a 5xx
+        private Duration latencyThreshold = Duration.ofMillis(200);
+
+        private double backoffRatio = 0.9;
+    }
+}
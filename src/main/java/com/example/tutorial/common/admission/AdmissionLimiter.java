@@ -0,0 +1,83 @@
+package com.example.tutorial.common.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import com.example.tutorial.common.admission.AdmissionControlProperties.Limit;
+
+/**
+ * Concurrency limit adapted by AIMD. A request that completes within the latency threshold raises the limit by
+ * 1/limit if at least half of the limit was in use when it was admitted, so an idle limit does not grow. A slow or
+ * failed request multiplies it by backoffRatio, once per round: requests that had already started before the last
+ * decrease do not decrease it again, so a burst of slow responses backs off once instead of collapsing the limit to
+ * the minimum.
+ */
+class AdmissionLimiter {
+
+    private final Limit properties;
+
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private long lastDecreaseNanos;
+
+    AdmissionLimiter(Limit properties) {
+        this.properties = properties;
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.limit = properties.getInitialLimit();
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns null, without waiting, if the limit has been reached.
+     */
+    Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), current + 1);
+            }
+        }
+    }
+
+    void release(Permit permit, boolean failed) {
+        inFlight.decrementAndGet();
+        long now = System.nanoTime();
+        boolean overloaded = failed || now - permit.startNanos > latencyThresholdNanos;
+        synchronized (this) {
+            if (overloaded) {
+                if (permit.startNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                    lastDecreaseNanos = now;
+                }
+            } else if (permit.inFlight * 2 >= limit) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+            }
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    static class Permit {
+
+        private final long startNanos;
+
+        // requests in flight including this one when it was admitted
+        private final int inFlight;
+
+        private Permit(long startNanos, int inFlight) {
+            this.startNanos = startNanos;
+            this.inFlight = inFlight;
+        }
+    }
+}
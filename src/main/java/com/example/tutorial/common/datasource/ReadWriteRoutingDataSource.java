@@ -0,0 +1,98 @@
+package com.example.tutorial.common.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Routes read-only transactions to the replica and everything else to the primary. It has to be wrapped in a
+ * LazyConnectionDataSourceProxy so that the connection is fetched after the transaction has been marked read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final String WRITTEN_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".WRITTEN";
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReadWriteRoutingProperties properties;
+
+    private volatile long replicaRetryAt;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadWriteRoutingProperties properties) {
+        this.properties = properties;
+        this.replicaRetryAt = System.nanoTime();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (!inTransaction || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (inTransaction) {
+                markWritten();
+            }
+            return Route.PRIMARY;
+        }
+        if (properties.isReadYourWrites() && isWritten()) {
+            return Route.PRIMARY;
+        }
+        return (System.nanoTime() - replicaRetryAt < 0) ? Route.PRIMARY : Route.REPLICA;
+    }
+
+    private Connection route(ConnectionSource connectionSource) throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return connectionSource.connect(getResolvedDataSources().get(Route.PRIMARY));
+        }
+        try {
+            return connectionSource.connect(getResolvedDataSources().get(Route.REPLICA));
+        } catch (SQLException e) {
+            replicaRetryAt = System.nanoTime() + properties.getReplicaRetryInterval().toNanos();
+            logger.warn("Replica is unavailable, reading from the primary for the next {}",
+                    properties.getReplicaRetryInterval(), e);
+            return connectionSource.connect(getResolvedDataSources().get(Route.PRIMARY));
+        }
+    }
+
+    private void markWritten() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(WRITTEN_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private boolean isWritten() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return requestAttributes != null
+                && requestAttributes.getAttribute(WRITTEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
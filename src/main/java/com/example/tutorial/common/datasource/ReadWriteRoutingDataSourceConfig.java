@@ -0,0 +1,50 @@
+package com.example.tutorial.common.datasource;
+
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Active when tutorial.datasource.replica.url is set. The primary pool keeps using spring.datasource.*, the replica
+ * pool takes the same keys under tutorial.datasource.replica.*.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "tutorial.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReadWriteRoutingProperties.class)
+@Profile("!reactive")
+public class ReadWriteRoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("tutorial.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) throws Exception {
+        // bound by hand so that Boot's own DataSourceProperties stays the only bean of that type
+        DataSourceProperties replicaProperties = Binder.get(environment)
+                .bind("tutorial.datasource.replica", DataSourceProperties.class).get();
+        replicaProperties.afterPropertiesSet();
+        return replicaProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+            ReadWriteRoutingProperties properties) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, properties));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.tutorial.common.datasource;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.datasource.routing")
+public class ReadWriteRoutingProperties {
+
+    /**
+     * Route the reads of an HTTP request to the primary once that request has run a read-write transaction.
+     */
+    private boolean readYourWrites = true;
+
+    /**
+     * How long reads stay on the primary after the replica failed to hand out a connection.
+     */
+    private Duration replicaRetryInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,99 @@
+package com.example.tutorial.common.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.AbstractTransactionStatus;
+
+/**
+ * Begins a transaction on every shard and commits them in reverse order (best-effort one-phase commit). A failure
+ * while committing one shard rolls back the shards that have not committed yet, but cannot undo the ones that already
+ * have. Shard data sources should be LazyConnectionDataSourceProxy instances so that untouched shards cost nothing.
+ */
+public class ShardTransactionManager implements PlatformTransactionManager {
+
+    private final List<PlatformTransactionManager> transactionManagers;
+
+    public ShardTransactionManager(List<PlatformTransactionManager> transactionManagers) {
+        this.transactionManagers = List.copyOf(transactionManagers);
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        ShardTransactionStatus status = new ShardTransactionStatus();
+        try {
+            for (PlatformTransactionManager transactionManager : transactionManagers) {
+                status.statuses.add(transactionManager.getTransaction(definition));
+            }
+        } catch (RuntimeException | Error e) {
+            completeAll(status, false);
+            throw e;
+        }
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        ShardTransactionStatus shardStatus = (ShardTransactionStatus) status;
+        completeAll(shardStatus, !shardStatus.isRollbackOnly());
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        completeAll((ShardTransactionStatus) status, false);
+    }
+
+    private void completeAll(ShardTransactionStatus status, boolean commit) {
+        RuntimeException failure = null;
+        ListIterator<TransactionStatus> statuses = status.statuses.listIterator(status.statuses.size());
+        while (statuses.hasPrevious()) {
+            int index = statuses.previousIndex();
+            TransactionStatus shardStatus = statuses.previous();
+            try {
+                if (commit && failure == null) {
+                    transactionManagers.get(index).commit(shardStatus);
+                } else {
+                    transactionManagers.get(index).rollback(shardStatus);
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        status.setCompleted();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static class ShardTransactionStatus extends AbstractTransactionStatus {
+
+        private final List<TransactionStatus> statuses = new ArrayList<>();
+
+        @Override
+        public boolean isNewTransaction() {
+            return !statuses.isEmpty() && statuses.get(0).isNewTransaction();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            super.setRollbackOnly();
+            statuses.forEach(TransactionStatus::setRollbackOnly);
+        }
+
+        @Override
+        public boolean isGlobalRollbackOnly() {
+            return statuses.stream().anyMatch(TransactionStatus::isRollbackOnly);
+        }
+
+        @Override
+        public void flush() {
+            statuses.forEach(TransactionStatus::flush);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.tutorial.common.mybatis;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.apache.ibatis.cursor.Cursor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Merges cursors that are each sorted by the same comparator into one sorted cursor, reading one row ahead per
+ * cursor.
+ */
+public class MergingCursor<T> implements Cursor<T> {
+
+    private final List<Cursor<T>> cursors;
+
+    private final Comparator<? super T> comparator;
+
+    private int currentIndex = -1;
+
+    private boolean iteratorRetrieved;
+
+    public MergingCursor(List<Cursor<T>> cursors, Comparator<? super T> comparator) {
+        this.cursors = List.copyOf(cursors);
+        this.comparator = comparator;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return cursors.stream().anyMatch(Cursor::isOpen);
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return cursors.stream().allMatch(Cursor::isConsumed);
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+        }
+        iteratorRetrieved = true;
+        return new MergingIterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Cursor<T> cursor : cursors) {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private class MergingIterator implements Iterator<T> {
+
+        private PriorityQueue<Head> heads;
+
+        @Override
+        public boolean hasNext() {
+            return !heads().isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head head = heads().poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            T next = head.value;
+            if (head.iterator.hasNext()) {
+                heads.add(new Head(head.iterator.next(), head.iterator));
+            }
+            currentIndex++;
+            return next;
+        }
+
+        private PriorityQueue<Head> heads() {
+            if (heads == null) {
+                heads = new PriorityQueue<>(Math.max(1, cursors.size()),
+                        (a, b) -> comparator.compare(a.value, b.value));
+                for (Cursor<T> cursor : cursors) {
+                    Iterator<T> iterator = cursor.iterator();
+                    if (iterator.hasNext()) {
+                        heads.add(new Head(iterator.next(), iterator));
+                    }
+                }
+            }
+            return heads;
+        }
+    }
+
+    @AllArgsConstructor
+    private class Head {
+
+        private final T value;
+
+        private final Iterator<T> iterator;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.tutorial.common.mybatis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Records latency and row counts per mapped statement, flags statements slower than the configured threshold
+ * and counts identical statements (same id and parameter values) issued more than once within one HTTP request.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+        @Signature(type = Executor.class, method = "query",
+                args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class,
+                        BoundSql.class }),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = { MappedStatement.class, Object.class, RowBounds.class }),
+        @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }) })
+public class StatementProfiler implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementProfiler.class);
+
+    private static final String EXECUTED_STATEMENTS_ATTRIBUTE = StatementProfiler.class.getName() + ".EXECUTED";
+
+    private final StatementProfilerProperties properties;
+
+    private final ConcurrentMap<String, StatementStats> statistics = new ConcurrentHashMap<>();
+
+    public StatementProfiler(StatementProfilerProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!properties.isEnabled()) {
+            return invocation.proceed();
+        }
+        Object[] args = invocation.getArgs();
+        MappedStatement mappedStatement = (MappedStatement) args[0];
+        String statementId = shortId(mappedStatement.getId());
+        StatementStats stats = statistics.computeIfAbsent(statementId,
+                id -> new StatementStats(mappedStatement.getFetchSize()));
+        if (isRepeatedInRequest(mappedStatement, args)) {
+            stats.recordRepeated();
+            logger.debug("Repeated statement within one request: {}", statementId);
+        }
+
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        long elapsed = System.nanoTime() - start;
+
+        boolean slow = elapsed > properties.getSlowThreshold().toNanos();
+        if (slow) {
+            logger.warn("Slow statement: {} took {} ms", statementId, elapsed / 1_000_000);
+        }
+        stats.record(elapsed, rowCount(result), slow);
+        return result;
+    }
+
+    public Map<String, StatementStats> getStatistics() {
+        List<Map.Entry<String, StatementStats>> entries = new ArrayList<>(statistics.entrySet());
+        entries.sort(Comparator.comparingDouble(
+                (Map.Entry<String, StatementStats> entry) -> entry.getValue().getTotalMillis()).reversed());
+        Map<String, StatementStats> sorted = new LinkedHashMap<>();
+        entries.forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    private boolean isRepeatedInRequest(MappedStatement mappedStatement, Object[] args) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return false;
+        }
+        BoundSql boundSql = (args.length == 6) ? (BoundSql) args[5] : mappedStatement.getBoundSql(args[1]);
+        @SuppressWarnings("unchecked")
+        Set<List<Object>> executed = (Set<List<Object>>) requestAttributes.getAttribute(
+                EXECUTED_STATEMENTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (executed == null) {
+            executed = new HashSet<>();
+            requestAttributes.setAttribute(EXECUTED_STATEMENTS_ATTRIBUTE, executed, RequestAttributes.SCOPE_REQUEST);
+        }
+        List<Object> key = new ArrayList<>();
+        key.add(mappedStatement.getId());
+        key.add(boundSql.getSql());
+        key.addAll(parameterValues(mappedStatement.getConfiguration(), boundSql));
+        return !executed.add(key);
+    }
+
+    // mirrors DefaultParameterHandler so the key reflects the values actually bound to the statement
+    private List<Object> parameterValues(Configuration configuration, BoundSql boundSql) {
+        Object parameterObject = boundSql.getParameterObject();
+        List<Object> values = new ArrayList<>();
+        MetaObject metaObject = null;
+        for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+            String property = parameterMapping.getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if (parameterObject == null
+                    || configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                values.add(parameterObject);
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                values.add(metaObject.getValue(property));
+            }
+        }
+        return values;
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        // a Cursor is consumed by the caller after the statement returns
+        return (result instanceof Cursor) ? 0 : 1;
+    }
+
+    private static String shortId(String id) {
+        int methodIndex = id.lastIndexOf('.');
+        return id.substring(id.lastIndexOf('.', methodIndex - 1) + 1);
+    }
+}
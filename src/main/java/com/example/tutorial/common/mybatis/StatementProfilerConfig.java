@@ -0,0 +1,23 @@
+package com.example.tutorial.common.mybatis;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(StatementProfilerProperties.class)
+public class StatementProfilerConfig {
+
+    /**
+     * Registered as a bean so that the MyBatis auto-configuration adds it to every mapper, i.e. TodoRepository.
+     */
+    @Bean
+    public StatementProfiler statementProfiler(StatementProfilerProperties properties) {
+        return new StatementProfiler(properties);
+    }
+
+    @Bean
+    public StatementProfilerEndpoint statementProfilerEndpoint(StatementProfiler statementProfiler) {
+        return new StatementProfilerEndpoint(statementProfiler);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.tutorial.common.mybatis;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+@Endpoint(id = "mybatis")
+public class StatementProfilerEndpoint {
+
+    private final StatementProfiler statementProfiler;
+
+    public StatementProfilerEndpoint(StatementProfiler statementProfiler) {
+        this.statementProfiler = statementProfiler;
+    }
+
+    @ReadOperation
+    public Map<String, StatementStats> statements() {
+        return statementProfiler.getStatistics();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statementProfiler.reset();
+    }
+}
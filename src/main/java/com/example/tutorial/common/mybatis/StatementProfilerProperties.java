@@ -0,0 +1,16 @@
+package com.example.tutorial.common.mybatis;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.mybatis.profiler")
+public class StatementProfilerProperties {
+
+    private boolean enabled = true;
+
+    private Duration slowThreshold = Duration.ofMillis(100);
+}
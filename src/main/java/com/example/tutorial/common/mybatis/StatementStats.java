@@ -0,0 +1,75 @@
+package com.example.tutorial.common.mybatis;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+
+public class StatementStats {
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder slowCount = new LongAdder();
+
+    private final LongAdder repeatedCount = new LongAdder();
+
+    @Getter
+    private final Integer fetchSize;
+
+    StatementStats(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    void record(long nanos, long rowCount, boolean slow) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        rows.add(rowCount);
+        if (slow) {
+            slowCount.increment();
+        }
+    }
+
+    void recordRepeated() {
+        repeatedCount.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getTotalMillis() {
+        return toMillis(totalNanos.sum());
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return (n == 0) ? 0 : toMillis(totalNanos.sum()) / n;
+    }
+
+    public double getMaxMillis() {
+        return toMillis(maxNanos.get());
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getSlowCount() {
+        return slowCount.sum();
+    }
+
+    public long getRepeatedCount() {
+        return repeatedCount.sum();
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
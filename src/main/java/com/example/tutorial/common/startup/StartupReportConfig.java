@@ -0,0 +1,15 @@
+package com.example.tutorial.common.startup;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(StartupReportProperties.class)
+public class StartupReportConfig {
+
+    @Bean
+    public StartupReporter startupReporter(StartupReportProperties properties) {
+        return new StartupReporter(properties);
+    }
+}
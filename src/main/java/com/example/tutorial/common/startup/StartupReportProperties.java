@@ -0,0 +1,16 @@
+package com.example.tutorial.common.startup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.startup")
+public class StartupReportProperties {
+
+    private int topBeans = 10;
+
+    // for training runs, e.g. the appcds profile
+    private boolean exitAfterStartup = false;
+}
@@ -0,0 +1,95 @@
+package com.example.tutorial.common.startup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * Logs where startup time went once the application is ready: the duration of each top-level startup step (phases
+ * such as spring.boot.application.environment-prepared or spring.context.refresh) and the beans that took longest to
+ * instantiate. Bean times exclude the beans they depend on. Only available when the application was started with a
+ * {@link BufferingApplicationStartup}, as TutorialApplication.main does; the full timeline is also served by the
+ * startup actuator endpoint.
+ */
+public class StartupReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupReporter.class);
+
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    private final StartupReportProperties properties;
+
+    public StartupReporter(StartupReportProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        if (context.getApplicationStartup() instanceof BufferingApplicationStartup) {
+            StartupTimeline timeline = ((BufferingApplicationStartup) context.getApplicationStartup())
+                    .getBufferedTimeline();
+            logger.info("Startup phases (ms): {}", phases(timeline));
+            logger.info("Slowest beans (ms, excluding dependencies): {}", slowestBeans(timeline));
+        }
+        if (properties.isExitAfterStartup()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    Map<String, Long> phases(StartupTimeline timeline) {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if (event.getStartupStep().getParentId() == null) {
+                phases.merge(event.getStartupStep().getName(), event.getDuration().toMillis(), Long::sum);
+            }
+        }
+        return phases;
+    }
+
+    List<String> slowestBeans(StartupTimeline timeline) {
+        Map<Long, Duration> childDurations = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                childDurations.merge(parentId, event.getDuration(), Duration::plus);
+            }
+        }
+        List<Map.Entry<String, Duration>> beans = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            StartupStep step = event.getStartupStep();
+            if (BEAN_STEP.equals(step.getName())) {
+                Duration self = event.getDuration().minus(childDurations.getOrDefault(step.getId(), Duration.ZERO));
+                beans.add(Map.entry(beanName(step), self));
+            }
+        }
+        List<String> slowest = new ArrayList<>();
+        beans.stream()
+                .sorted(Map.Entry.<String, Duration>comparingByValue(Comparator.reverseOrder()))
+                .limit(properties.getTopBeans())
+                .forEach(bean -> slowest.add(bean.getKey() + "=" + bean.getValue().toMillis()));
+        return slowest;
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
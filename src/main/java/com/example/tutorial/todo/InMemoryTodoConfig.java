@@ -0,0 +1,25 @@
+package com.example.tutorial.todo;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Replaces H2 and MyBatis with {@link InMemoryTodoRepository}. application-memory.properties turns off the DataSource
+ * and MyBatis auto-configuration, so TodoRepository is not registered as a mapper in this profile.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("memory & !reactive")
+public class InMemoryTodoConfig {
+
+    @Bean
+    public InMemoryTodoRepository todoRepository() {
+        return new InMemoryTodoRepository();
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new InMemoryTransactionManager();
+    }
+}
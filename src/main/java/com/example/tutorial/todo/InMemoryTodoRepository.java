@@ -0,0 +1,890 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * TodoRepository kept on the heap instead of in H2. Todos live in slots of parallel primitive arrays (createdAt as
+ * epoch microseconds, finished as a bit), titles are stored once per distinct value, and todoId is mapped to its slot
+ * by an open-addressing long-to-int table. A second array keeps the slots sorted by (createdAt, todoId), which plays
+ * the part of idx_todo_created_at for keyset pagination. Counts are maintained on every write so that
+ * countByFinished and the unfinished counter are O(1).
+ * <p>
+ * Row locks are not modelled: FOR UPDATE statements rely on {@link InMemoryTransactionManager} to serialize writing
+ * transactions. Changes made inside a transaction are undone if it rolls back; sequences are not, as in H2.
+ */
+public class InMemoryTodoRepository implements TodoRepository, TodoChangeLog {
+
+    // todo_title VARCHAR(30)
+    static final int MAX_TITLE_LENGTH = 30;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private static final int NULL_TITLE = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong idSequence = new AtomicLong();
+
+    private final AtomicLong idBlockSequence = new AtomicLong(1 - ShardedTodoRepository.ID_BLOCK_SIZE);
+
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    private final LongIntMap slots = new LongIntMap(INITIAL_CAPACITY);
+
+    private final Titles titles = new Titles();
+
+    private final BitSet finished = new BitSet();
+
+    // todo_tombstone, by version and by todoId
+    private final TreeMap<Long, TodoTombstone> tombstones = new TreeMap<>();
+
+    private final Map<Long, Long> tombstoneVersions = new HashMap<>();
+
+    // todo_archive by todoId; archived todos are only read on request, so they are kept as plain objects
+    private final TreeMap<Long, Todo> archive = new TreeMap<>();
+
+    private long[] todoIds = new long[INITIAL_CAPACITY];
+
+    private long[] createdAts = new long[INITIAL_CAPACITY];
+
+    private long[] versions = new long[INITIAL_CAPACITY];
+
+    private int[] titleRefs = new int[INITIAL_CAPACITY];
+
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+
+    private int[] order = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    private int slotCount;
+
+    private int freeCount;
+
+    private long finishedCount;
+
+    private long maxVersion;
+
+    private long unfinishedCount;
+
+    private long tombstoneHorizon;
+
+    @Override
+    public Optional<Todo> findById(Long todoId) {
+        return read(() -> {
+            int slot = slots.get(todoId);
+            return slot < 0 ? Optional.empty() : Optional.of(toTodo(slot));
+        });
+    }
+
+    @Override
+    public Collection<Todo> findAll() {
+        return read(() -> {
+            List<Todo> todos = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                todos.add(toTodo(order[i]));
+            }
+            return todos;
+        });
+    }
+
+    @Override
+    public List<Todo> findByCriteria(TodoCriteria criteria, TodoCursor after, Integer limit) {
+        long createdFrom = criteria.getCreatedFrom() == null ? NULL_TIME : toEpochMicros(criteria.getCreatedFrom());
+        long createdTo = criteria.getCreatedTo() == null ? NULL_TIME : toEpochMicros(criteria.getCreatedTo());
+        int max = limit == null ? Integer.MAX_VALUE : limit;
+        return read(() -> {
+            List<Todo> todos = new ArrayList<>(Math.min(max, size));
+            if (criteria.getSort().isDescending()) {
+                int end = size;
+                if (criteria.getCreatedTo() != null) {
+                    end = Math.min(end, search(createdTo, Long.MIN_VALUE, false));
+                }
+                if (after != null) {
+                    end = Math.min(end, search(toEpochMicros(after.getCreatedAt()), after.getTodoId(), false));
+                }
+                for (int i = end - 1; i >= 0 && todos.size() < max; i--) {
+                    int slot = order[i];
+                    if (criteria.getCreatedFrom() != null && createdAts[slot] < createdFrom) {
+                        break;
+                    }
+                    addIfMatches(todos, slot, criteria);
+                }
+            } else {
+                int start = 0;
+                if (criteria.getCreatedFrom() != null) {
+                    start = search(createdFrom, Long.MIN_VALUE, false);
+                }
+                if (after != null) {
+                    start = Math.max(start, search(toEpochMicros(after.getCreatedAt()), after.getTodoId(), true));
+                }
+                for (int i = start; i < size && todos.size() < max; i++) {
+                    int slot = order[i];
+                    if (criteria.getCreatedTo() != null && createdAts[slot] >= createdTo) {
+                        break;
+                    }
+                    addIfMatches(todos, slot, criteria);
+                }
+            }
+            return criteria.isIncludeArchived() ? withArchived(todos, criteria, after, max) : todos;
+        });
+    }
+
+    @Override
+    public List<Long> findArchivableIds(LocalDateTime createdBefore, int limit) {
+        long before = toEpochMicros(createdBefore);
+        return read(() -> {
+            List<Long> todoIds = new ArrayList<>();
+            for (int i = 0; i < size && todoIds.size() < limit; i++) {
+                int slot = order[i];
+                if (createdAts[slot] >= before) {
+                    break;
+                }
+                if (createdAts[slot] != NULL_TIME && finished.get(slot)) {
+                    todoIds.add(this.todoIds[slot]);
+                }
+            }
+            return todoIds;
+        });
+    }
+
+    @Override
+    public long archiveAllById(List<Long> todoIds) {
+        return write(() -> {
+            long count = 0;
+            for (Long todoId : todoIds) {
+                int slot = slots.get(todoId);
+                if (slot >= 0 && finished.get(slot)) {
+                    archive.put(todoId, toTodo(slot));
+                    onRollback(() -> archive.remove(todoId));
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Iterates over the todos that exist when the cursor is opened, in todoId order. Only the ids are copied up front;
+     * each todo is read when the cursor reaches it, so todos deleted in the meantime are skipped.
+     */
+    @Override
+    public Cursor<Todo> scanAll() {
+        long[] snapshot = read(() -> {
+            long[] ids = new long[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = todoIds[order[i]];
+            }
+            return ids;
+        });
+        Arrays.sort(snapshot);
+        return new SnapshotCursor(snapshot);
+    }
+
+    @Override
+    public void create(Todo todo) {
+        todo.setTodoId(idSequence.incrementAndGet());
+        createWithId(todo);
+    }
+
+    @Override
+    public void createAll(List<Todo> todos) {
+        todos.forEach(this::checkTitle);
+        todos.forEach(this::create);
+    }
+
+    @Override
+    public void createWithId(Todo todo) {
+        checkTitle(todo);
+        long version = versionSequence.incrementAndGet();
+        write(() -> {
+            if (slots.get(todo.getTodoId()) >= 0) {
+                throw new DuplicateKeyException("Duplicate todo_id: " + todo.getTodoId());
+            }
+            insert(todo.getTodoId(), todo.getTodoTitle(), todo.isFinished(), toEpochMicros(todo.getCreatedAt()),
+                    version);
+            onRollback(() -> delete(slots.get(todo.getTodoId())));
+            return null;
+        });
+        idSequence.accumulateAndGet(todo.getTodoId(), Math::max);
+        todo.setVersion(version);
+    }
+
+    @Override
+    public void createAllWithId(List<Todo> todos) {
+        todos.forEach(this::checkTitle);
+        todos.forEach(this::createWithId);
+    }
+
+    @Override
+    public long nextIdBlock() {
+        return idBlockSequence.addAndGet(ShardedTodoRepository.ID_BLOCK_SIZE);
+    }
+
+    @Override
+    public List<Todo> findAllById(List<Long> todoIds) {
+        return read(() -> {
+            List<Todo> todos = new ArrayList<>(todoIds.size());
+            for (Long todoId : todoIds) {
+                int slot = slots.get(todoId);
+                if (slot >= 0) {
+                    todos.add(toTodo(slot));
+                }
+            }
+            return todos;
+        });
+    }
+
+    @Override
+    public Optional<Todo> findByIdForUpdate(Long todoId) {
+        return findById(todoId);
+    }
+
+    @Override
+    public long updateById(Long todoId) {
+        return updateAllById(List.of(todoId));
+    }
+
+    @Override
+    public long updateByIdAndVersion(Long todoId, long version) {
+        return write(() -> {
+            int slot = slots.get(todoId);
+            return slot >= 0 && versions[slot] == version ? finish(slot) : 0L;
+        });
+    }
+
+    @Override
+    public long deleteById(Long todoId) {
+        return deleteAllById(List.of(todoId));
+    }
+
+    @Override
+    public List<Todo> findAllByIdForUpdate(List<Long> todoIds) {
+        return findAllById(todoIds);
+    }
+
+    @Override
+    public long updateAllById(List<Long> todoIds) {
+        return write(() -> {
+            long count = 0;
+            for (Long todoId : todoIds) {
+                int slot = slots.get(todoId);
+                if (slot >= 0) {
+                    count += finish(slot);
+                }
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public long deleteAllById(List<Long> todoIds) {
+        return write(() -> {
+            long count = 0;
+            boolean maxVersionDeleted = false;
+            for (Long todoId : todoIds) {
+                int slot = slots.get(todoId);
+                if (slot < 0) {
+                    continue;
+                }
+                String title = titles.get(titleRefs[slot]);
+                boolean wasFinished = finished.get(slot);
+                long createdAt = createdAts[slot];
+                long version = versions[slot];
+                maxVersionDeleted |= version == maxVersion;
+                delete(slot);
+                onRollback(() -> insert(todoId, title, wasFinished, createdAt, version));
+                count++;
+            }
+            if (maxVersionDeleted) {
+                maxVersion = 0;
+                for (int i = 0; i < size; i++) {
+                    maxVersion = Math.max(maxVersion, versions[order[i]]);
+                }
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public void createTombstones(List<Long> todoIds) {
+        write(() -> {
+            for (Long todoId : todoIds) {
+                long version = versionSequence.incrementAndGet();
+                TodoTombstone previous = putTombstone(new TodoTombstone(todoId, version, LocalDateTime.now()));
+                onRollback(() -> {
+                    tombstones.remove(version);
+                    tombstoneVersions.remove(todoId);
+                    if (previous != null) {
+                        putTombstone(previous);
+                    }
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * There is no version index over the slots, so this scans the versions array; only the matching slots are
+     * materialized and sorted. Todos, tombstones and the horizon are read under the same lock.
+     */
+    @Override
+    public TodoChanges findChanges(TodoSyncToken since, int limit) {
+        return read(() -> {
+            if (since != null && since.getVersions().size() == 1
+                    && since.getDeletedVersions().get(0) >= tombstoneHorizon) {
+                return TodoChanges.merge(findChangedSince(since.getVersions().get(0), limit + 1),
+                        findDeletedSince(since.getDeletedVersions().get(0), limit + 1), since, limit, false);
+            }
+            long watermark = Math.max(maxVersion, tombstones.isEmpty() ? 0 : tombstones.lastKey());
+            return TodoChanges.merge(findChangedSince(0, limit + 1), List.of(), TodoSyncToken.of(0, watermark),
+                    limit, true);
+        });
+    }
+
+    @Override
+    public long purgeTombstones(LocalDateTime deletedBefore) {
+        return write(() -> {
+            long version = 0;
+            for (TodoTombstone tombstone : tombstones.values()) {
+                if (tombstone.getDeletedAt().isBefore(deletedBefore)) {
+                    version = tombstone.getVersion();
+                }
+            }
+            if (version == 0) {
+                return 0L;
+            }
+            long previousHorizon = tombstoneHorizon;
+            tombstoneHorizon = Math.max(tombstoneHorizon, version);
+            List<TodoTombstone> purged = new ArrayList<>(tombstones.headMap(version, true).values());
+            for (TodoTombstone tombstone : purged) {
+                tombstones.remove(tombstone.getVersion());
+                tombstoneVersions.remove(tombstone.getTodoId());
+            }
+            onRollback(() -> {
+                tombstoneHorizon = previousHorizon;
+                purged.forEach(this::putTombstone);
+            });
+            return (long) purged.size();
+        });
+    }
+
+    @Override
+    public String findAggregateVersion() {
+        return read(() -> size + "-" + maxVersion);
+    }
+
+    @Override
+    public long countByFinished(boolean finished) {
+        return read(() -> finished ? finishedCount : size - finishedCount);
+    }
+
+    @Override
+    public long findUnfinishedCount() {
+        return read(() -> unfinishedCount);
+    }
+
+    @Override
+    public long findUnfinishedCountForUpdate() {
+        return findUnfinishedCount();
+    }
+
+    /**
+     * Writing transactions already hold {@link InMemoryTransactionManager}'s write lock, which read-only ones such as
+     * a delta sync wait for.
+     */
+    @Override
+    public long lockVersions() {
+        return 0;
+    }
+
+    @Override
+    public long incrementUnfinishedCount(long delta, long max) {
+        return write(() -> {
+            if (unfinishedCount + delta > max) {
+                return 0L;
+            }
+            addUnfinishedCount(delta);
+            return 1L;
+        });
+    }
+
+    @Override
+    public long decrementUnfinishedCount(long delta) {
+        return write(() -> {
+            addUnfinishedCount(-delta);
+            return 1L;
+        });
+    }
+
+    @Override
+    public long updateUnfinishedCount(long count) {
+        return write(() -> {
+            addUnfinishedCount(count - unfinishedCount);
+            return 1L;
+        });
+    }
+
+    private List<Todo> findChangedSince(long since, int limit) {
+        List<long[]> changed = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int slot = order[i];
+            if (versions[slot] > since) {
+                changed.add(new long[] { versions[slot], slot });
+            }
+        }
+        changed.sort((left, right) -> Long.compare(left[0], right[0]));
+        List<Todo> todos = new ArrayList<>(Math.min(limit, changed.size()));
+        for (int i = 0; i < Math.min(limit, changed.size()); i++) {
+            todos.add(toTodo((int) changed.get(i)[1]));
+        }
+        return todos;
+    }
+
+    private List<TodoTombstone> findDeletedSince(long since, int limit) {
+        List<TodoTombstone> deleted = new ArrayList<>();
+        for (TodoTombstone tombstone : tombstones.tailMap(since, false).values()) {
+            if (deleted.size() == limit) {
+                break;
+            }
+            deleted.add(tombstone);
+        }
+        return deleted;
+    }
+
+    private TodoTombstone putTombstone(TodoTombstone tombstone) {
+        Long previous = tombstoneVersions.put(tombstone.getTodoId(), tombstone.getVersion());
+        tombstones.put(tombstone.getVersion(), tombstone);
+        return previous == null ? null : tombstones.remove(previous);
+    }
+
+    private void addUnfinishedCount(long delta) {
+        unfinishedCount += delta;
+        onRollback(() -> unfinishedCount -= delta);
+    }
+
+    private long finish(int slot) {
+        if (finished.get(slot)) {
+            return 0L;
+        }
+        long todoId = todoIds[slot];
+        long version = versions[slot];
+        setFinished(slot, true, versionSequence.incrementAndGet());
+        onRollback(() -> setFinished(slots.get(todoId), false, version));
+        return 1L;
+    }
+
+    private void setFinished(int slot, boolean value, long version) {
+        finished.set(slot, value);
+        finishedCount += value ? 1 : -1;
+        versions[slot] = version;
+        maxVersion = Math.max(maxVersion, version);
+    }
+
+    private void insert(long todoId, String title, boolean isFinished, long createdAt, long version) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == todoIds.length) {
+                grow(slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        todoIds[slot] = todoId;
+        createdAts[slot] = createdAt;
+        versions[slot] = version;
+        titleRefs[slot] = titles.add(title);
+        finished.set(slot, isFinished);
+        finishedCount += isFinished ? 1 : 0;
+        maxVersion = Math.max(maxVersion, version);
+        slots.put(todoId, slot);
+
+        int position = search(createdAt, todoId, false);
+        System.arraycopy(order, position, order, position + 1, size - position);
+        order[position] = slot;
+        size++;
+    }
+
+    private void delete(int slot) {
+        int position = search(createdAts[slot], todoIds[slot], false);
+        System.arraycopy(order, position + 1, order, position, size - position - 1);
+        size--;
+
+        slots.remove(todoIds[slot]);
+        titles.release(titleRefs[slot]);
+        finishedCount -= finished.get(slot) ? 1 : 0;
+        finished.clear(slot);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void grow(int capacity) {
+        todoIds = Arrays.copyOf(todoIds, capacity);
+        createdAts = Arrays.copyOf(createdAts, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        titleRefs = Arrays.copyOf(titleRefs, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+
+    // index of the first slot in order whose (createdAt, todoId) is greater than, or with strict == false equal to,
+    // the given key
+    private int search(long createdAt, long todoId, boolean strict) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int slot = order[middle];
+            int compared = createdAts[slot] != createdAt ? Long.compare(createdAts[slot], createdAt)
+                    : Long.compare(todoIds[slot], todoId);
+            if (compared < 0 || (strict && compared == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void addIfMatches(List<Todo> todos, int slot, TodoCriteria criteria) {
+        if (criteria.getFinished() != null && finished.get(slot) != criteria.getFinished()) {
+            return;
+        }
+        // a NULL created_at never satisfies a range condition
+        if (createdAts[slot] == NULL_TIME && (criteria.getCreatedFrom() != null || criteria.getCreatedTo() != null)) {
+            return;
+        }
+        todos.add(toTodo(slot));
+    }
+
+    /**
+     * Merges the matching archived todos into a page of live ones. The archive has no createdAt order of its own, so
+     * it is scanned in full.
+     */
+    private List<Todo> withArchived(List<Todo> todos, TodoCriteria criteria, TodoCursor after, int max) {
+        Comparator<Todo> order = Comparator
+                .comparing(Todo::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                .thenComparing(Todo::getTodoId);
+        if (criteria.getSort().isDescending()) {
+            order = order.reversed();
+        }
+        Todo cursor = (after == null) ? null : new Todo(after.getTodoId(), null, false, after.getCreatedAt());
+        List<Todo> merged = new ArrayList<>(todos);
+        for (Todo todo : archive.values()) {
+            if (archivedMatches(todo, criteria) && (cursor == null || order.compare(todo, cursor) > 0)) {
+                merged.add(new Todo(todo.getTodoId(), todo.getTodoTitle(), todo.isFinished(), todo.getCreatedAt(),
+                        todo.getVersion()));
+            }
+        }
+        merged.sort(order);
+        return merged.size() <= max ? merged : new ArrayList<>(merged.subList(0, max));
+    }
+
+    private static boolean archivedMatches(Todo todo, TodoCriteria criteria) {
+        if (criteria.getFinished() != null && todo.isFinished() != criteria.getFinished()) {
+            return false;
+        }
+        LocalDateTime createdAt = todo.getCreatedAt();
+        if (criteria.getCreatedFrom() != null && (createdAt == null || createdAt.isBefore(criteria.getCreatedFrom()))) {
+            return false;
+        }
+        return criteria.getCreatedTo() == null || (createdAt != null && createdAt.isBefore(criteria.getCreatedTo()));
+    }
+
+    private Todo toTodo(int slot) {
+        return new Todo(todoIds[slot], titles.get(titleRefs[slot]), finished.get(slot),
+                toLocalDateTime(createdAts[slot]), versions[slot]);
+    }
+
+    private void checkTitle(Todo todo) {
+        if (todo.getTodoTitle() != null && todo.getTodoTitle().length() > MAX_TITLE_LENGTH) {
+            throw new DataIntegrityViolationException("Value too long for todo_title: " + todo.getTodoTitle());
+        }
+    }
+
+    /**
+     * Queues the inverse of a change made inside the current transaction. The actions run, newest first, while the
+     * transaction manager still holds its lock if the transaction rolls back.
+     */
+    private void onRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Deque<Runnable> undoLog = (Deque<Runnable>) TransactionSynchronizationManager.getResource(this);
+        if (undoLog == null) {
+            Deque<Runnable> newUndoLog = new ArrayDeque<>();
+            TransactionSynchronizationManager.bindResource(this, newUndoLog);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(InMemoryTodoRepository.this);
+                    if (status == STATUS_ROLLED_BACK) {
+                        write(() -> {
+                            newUndoLog.forEach(Runnable::run);
+                            return null;
+                        });
+                    }
+                }
+            });
+            undoLog = newUndoLog;
+        }
+        undoLog.push(undo);
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // truncated to microseconds like TIMESTAMP
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NULL_TIME;
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMicros) {
+        if (epochMicros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000),
+                (int) Math.floorMod(epochMicros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private class SnapshotCursor implements Cursor<Todo> {
+
+        private final long[] snapshot;
+
+        private int position;
+
+        private int currentIndex = -1;
+
+        private boolean open = true;
+
+        private Todo next;
+
+        SnapshotCursor(long[] snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return position == snapshot.length && next == null;
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return currentIndex;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        @Override
+        public Iterator<Todo> iterator() {
+            return new Iterator<>() {
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && open && position < snapshot.length) {
+                        next = findById(snapshot[position++]).orElse(null);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Todo next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Todo todo = next;
+                    next = null;
+                    currentIndex++;
+                    return todo;
+                }
+            };
+        }
+    }
+
+    /**
+     * Distinct titles with reference counts; a title slot is reused once no todo refers to it.
+     */
+    private static class Titles {
+
+        private final Map<String, Integer> refs = new HashMap<>();
+
+        private String[] values = new String[INITIAL_CAPACITY];
+
+        private int[] counts = new int[INITIAL_CAPACITY];
+
+        private final Deque<Integer> freeRefs = new ArrayDeque<>();
+
+        private int refCount;
+
+        int add(String title) {
+            if (title == null) {
+                return NULL_TITLE;
+            }
+            Integer ref = refs.get(title);
+            if (ref == null) {
+                if (!freeRefs.isEmpty()) {
+                    ref = freeRefs.pop();
+                } else {
+                    if (refCount == values.length) {
+                        values = Arrays.copyOf(values, refCount * 2);
+                        counts = Arrays.copyOf(counts, refCount * 2);
+                    }
+                    ref = refCount++;
+                }
+                values[ref] = title;
+                refs.put(title, ref);
+            }
+            counts[ref]++;
+            return ref;
+        }
+
+        String get(int ref) {
+            return ref == NULL_TITLE ? null : values[ref];
+        }
+
+        void release(int ref) {
+            if (ref != NULL_TITLE && --counts[ref] == 0) {
+                refs.remove(values[ref]);
+                values[ref] = null;
+                freeRefs.push(ref);
+            }
+        }
+    }
+
+    /**
+     * Open-addressing map from long keys to non-negative int values, with linear probing and backward-shift deletion
+     * so that no tombstones are left behind. get returns -1 for a missing key.
+     */
+    private static class LongIntMap {
+
+        private long[] keys;
+
+        private int[] values;
+
+        private int count;
+
+        LongIntMap(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+        }
+
+        int get(long key) {
+            for (int index = indexOf(key, keys.length);; index = (index + 1) & (keys.length - 1)) {
+                if (values[index] < 0 || keys[index] == key) {
+                    return values[index];
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if ((count + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int index = indexOf(key, keys.length);
+            while (values[index] >= 0 && keys[index] != key) {
+                index = (index + 1) & (keys.length - 1);
+            }
+            if (values[index] < 0) {
+                count++;
+            }
+            keys[index] = key;
+            values[index] = value;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int index = indexOf(key, keys.length);
+            while (values[index] >= 0 && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            if (values[index] < 0) {
+                return;
+            }
+            count--;
+            // shift the following entries of the probe run back into the gap
+            int gap = index;
+            for (int next = (gap + 1) & mask; values[next] >= 0; next = (next + 1) & mask) {
+                int home = indexOf(keys[next], keys.length);
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            values[gap] = -1;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] >= 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int indexOf(long key, int capacity) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.tutorial.todo;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Serializes transactions against {@link InMemoryTodoRepository} with a single read/write lock: read-only transactions
+ * share the read lock, all others hold the write lock until they complete. This stands in for the row locks taken by
+ * the FOR UPDATE statements; commit and rollback themselves are left to the repository's transaction synchronization.
+ */
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    protected Object doGetTransaction() {
+        return new LockTransaction((LockHolder) TransactionSynchronizationManager.getResource(lock));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((LockTransaction) transaction).holder != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        Lock acquired = definition.isReadOnly() ? lock.readLock() : lock.writeLock();
+        acquired.lock();
+        LockHolder holder = new LockHolder(acquired);
+        ((LockTransaction) transaction).holder = holder;
+        TransactionSynchronizationManager.bindResource(lock, holder);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((LockTransaction) transaction).holder = null;
+        return TransactionSynchronizationManager.unbindResource(lock);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(lock, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((LockTransaction) status.getTransaction()).holder.rollbackOnly = true;
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(lock);
+        ((LockTransaction) transaction).holder.lock.unlock();
+    }
+
+    private static class LockHolder {
+
+        private final Lock lock;
+
+        private boolean rollbackOnly;
+
+        LockHolder(Lock lock) {
+            this.lock = lock;
+        }
+    }
+
+    // shares the holder with the transactions that participate in it, so that they can mark it rollback-only
+    private static class LockTransaction implements SmartTransactionObject {
+
+        private LockHolder holder;
+
+        LockTransaction(LockHolder holder) {
+            this.holder = holder;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return holder != null && holder.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
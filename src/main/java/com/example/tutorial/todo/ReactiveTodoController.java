@@ -0,0 +1,123 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("todos")
+@Profile("reactive")
+public class ReactiveTodoController {
+
+    @Autowired
+    ReactiveTodoService todoService;
+
+    @Autowired
+    TodoResourceMapper todoResourceMapper;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<TodoResource>>> getTodos(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "finished", required = false) Boolean finished,
+            @RequestParam(name = "createdFrom", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(name = "createdTo", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(name = "sort", required = false) String sort,
+            ServerWebExchange exchange) {
+        TodoCriteria criteria = new TodoCriteria(finished, createdFrom, createdTo, TodoSort.parse(sort));
+        boolean paged = limit != null || after != null;
+        int pageSize = TodoController.pageSize(limit);
+        TodoCursor cursor = TodoCursor.decode(after);
+        return todoService.findAggregateVersion().flatMap(version -> {
+            if (exchange.checkNotModified(TodoController.eTag(version))) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+            }
+            if (!paged) {
+                Flux<Todo> todos = criteria.isEmpty() ? todoService.findAll() : todoService.findAll(criteria);
+                return todos.collectList().map(list -> ResponseEntity.ok(todoResourceMapper.toResources(list)));
+            }
+            return todoService.findPage(criteria, cursor, pageSize).map(page -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (page.hasNext()) {
+                    response.header(TodoController.NEXT_CURSOR_HEADER, page.getNext().encode());
+                }
+                return response.body(todoResourceMapper.toResources(page.getTodos()));
+            });
+        });
+    }
+
+    @GetMapping(path = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TodoResource> exportTodos() {
+        return todoService.exportAll().map(todoResourceMapper::toResource);
+    }
+
+    @GetMapping("{todoId}")
+    public Mono<ResponseEntity<TodoResource>> getTodo(@PathVariable("todoId") Long todoId) {
+        return todoService.findOne(todoId).map(todo -> ResponseEntity.ok()
+                .eTag(TodoController.eTag(todo.getVersion()))
+                .body(todoResourceMapper.toResource(todo)));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TodoResource> postTodo(@RequestBody @Validated TodoResource todoResource) {
+        return todoService.create(todoResourceMapper.toTodo(todoResource)).map(todoResourceMapper::toResource);
+    }
+
+    @PostMapping("batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<List<TodoResource>> postTodos(@RequestBody @Validated TodoBatchResource todoBatchResource) {
+        return todoService.createAll(todoResourceMapper.toTodos(todoBatchResource.getTodos()))
+                .map(todoResourceMapper::toResources);
+    }
+
+    @PutMapping("{todoId}")
+    public Mono<ResponseEntity<TodoResource>> putTodo(@PathVariable("todoId") Long todoId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Mono<Todo> finishedTodo = (ifMatch == null || TodoController.ANY_ETAG.equals(ifMatch.trim()))
+                ? todoService.finish(todoId)
+                : todoService.finish(todoId, TodoController.parseVersion(todoId, ifMatch));
+        return finishedTodo.map(todo -> ResponseEntity.ok()
+                .eTag(TodoController.eTag(todo.getVersion()))
+                .body(todoResourceMapper.toResource(todo)));
+    }
+
+    @PutMapping("finish")
+    public Mono<List<TodoBulkResult>> putTodos(@RequestBody List<Long> todoIds) {
+        return todoService.finishAll(TodoController.validateBulkIds(todoIds));
+    }
+
+    @DeleteMapping("{todoId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteTodo(@PathVariable("todoId") Long todoId) {
+        return todoService.delete(todoId);
+    }
+
+    @DeleteMapping
+    public Mono<List<TodoBulkResult>> deleteTodos(@RequestBody List<Long> todoIds) {
+        return todoService.deleteAll(TodoController.validateBulkIds(todoIds));
+    }
+
+}
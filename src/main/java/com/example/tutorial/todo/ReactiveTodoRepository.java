@@ -0,0 +1,193 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@Profile("reactive")
+public class ReactiveTodoRepository {
+
+    private static final String SELECT_TODO = "SELECT todo_id, todo_title, finished, created_at, version FROM todo";
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    public Mono<Todo> findById(Long todoId) {
+        return databaseClient.sql(SELECT_TODO + " WHERE todo_id = :todoId")
+                .bind("todoId", todoId)
+                .map(ReactiveTodoRepository::toTodo)
+                .one();
+    }
+
+    public Flux<Todo> findAll() {
+        return databaseClient.sql(SELECT_TODO).map(ReactiveTodoRepository::toTodo).all();
+    }
+
+    public Flux<Todo> findByCriteria(TodoCriteria criteria, TodoCursor after, Integer limit) {
+        boolean descending = criteria.getSort().isDescending();
+        StringBuilder sql = new StringBuilder(SELECT_TODO).append(" WHERE 1 = 1");
+        if (criteria.getFinished() != null) {
+            sql.append(" AND finished = :finished");
+        }
+        if (criteria.getCreatedFrom() != null) {
+            sql.append(" AND created_at >= :createdFrom");
+        }
+        if (criteria.getCreatedTo() != null) {
+            sql.append(" AND created_at < :createdTo");
+        }
+        if (after != null) {
+            sql.append(descending
+                    ? " AND created_at <= :afterCreatedAt AND (created_at < :afterCreatedAt OR todo_id < :afterTodoId)"
+                    : " AND created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR todo_id > :afterTodoId)");
+        }
+        sql.append(descending ? " ORDER BY created_at DESC, todo_id DESC" : " ORDER BY created_at, todo_id");
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+        }
+
+        GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        if (criteria.getFinished() != null) {
+            spec = spec.bind("finished", criteria.getFinished());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            spec = spec.bind("createdFrom", criteria.getCreatedFrom());
+        }
+        if (criteria.getCreatedTo() != null) {
+            spec = spec.bind("createdTo", criteria.getCreatedTo());
+        }
+        if (after != null) {
+            spec = spec.bind("afterCreatedAt", after.getCreatedAt()).bind("afterTodoId", after.getTodoId());
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec.map(ReactiveTodoRepository::toTodo).all();
+    }
+
+    public Flux<Todo> scanAll() {
+        return databaseClient.sql(SELECT_TODO + " ORDER BY todo_id").map(ReactiveTodoRepository::toTodo).all();
+    }
+
+    public Mono<Todo> create(Todo todo) {
+        return databaseClient.sql("INSERT INTO todo(todo_title, finished, created_at) VALUES(:todoTitle, :finished, :createdAt)")
+                .bind("todoTitle", todo.getTodoTitle())
+                .bind("finished", todo.isFinished())
+                .bind("createdAt", todo.getCreatedAt())
+                .filter(statement -> statement.returnGeneratedValues("todo_id", "version"))
+                .map(row -> setGeneratedKeys(todo, row))
+                .one();
+    }
+
+    public Flux<Todo> createAll(List<Todo> todos) {
+        StringBuilder sql = new StringBuilder("INSERT INTO todo(todo_title, finished, created_at) VALUES");
+        for (int i = 0; i < todos.size(); i++) {
+            sql.append(i == 0 ? " " : ", ").append("(:todoTitle").append(i).append(", :finished").append(i)
+                    .append(", :createdAt").append(i).append(")");
+        }
+        GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < todos.size(); i++) {
+            Todo todo = todos.get(i);
+            spec = spec.bind("todoTitle" + i, todo.getTodoTitle())
+                    .bind("finished" + i, todo.isFinished())
+                    .bind("createdAt" + i, todo.getCreatedAt());
+        }
+        return spec.filter(statement -> statement.returnGeneratedValues("todo_id", "version"))
+                .map(row -> new long[] { row.get("todo_id", Long.class), row.get("version", Long.class) })
+                .all()
+                .index((i, keys) -> {
+                    Todo todo = todos.get(i.intValue());
+                    todo.setTodoId(keys[0]);
+                    todo.setVersion(keys[1]);
+                    return todo;
+                });
+    }
+
+    public Mono<Todo> findByIdForUpdate(Long todoId) {
+        return databaseClient.sql(SELECT_TODO + " WHERE todo_id = :todoId FOR UPDATE")
+                .bind("todoId", todoId)
+                .map(ReactiveTodoRepository::toTodo)
+                .one();
+    }
+
+    public Mono<Integer> updateById(Long todoId) {
+        return databaseClient.sql("UPDATE todo SET finished = true, version = NEXT VALUE FOR todo_version_seq"
+                + " WHERE todo_id = :todoId AND finished = false")
+                .bind("todoId", todoId)
+                .fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> updateByIdAndVersion(Long todoId, long version) {
+        return databaseClient.sql("UPDATE todo SET finished = true, version = NEXT VALUE FOR todo_version_seq"
+                + " WHERE todo_id = :todoId AND finished = false AND version = :version")
+                .bind("todoId", todoId)
+                .bind("version", version)
+                .fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> deleteById(Long todoId) {
+        return databaseClient.sql("DELETE FROM todo WHERE todo_id = :todoId")
+                .bind("todoId", todoId)
+                .fetch().rowsUpdated();
+    }
+
+    public Flux<Todo> findAllByIdForUpdate(List<Long> todoIds) {
+        return databaseClient.sql(SELECT_TODO + " WHERE todo_id IN (:todoIds) FOR UPDATE")
+                .bind("todoIds", todoIds)
+                .map(ReactiveTodoRepository::toTodo)
+                .all();
+    }
+
+    public Mono<Integer> updateAllById(List<Long> todoIds) {
+        return databaseClient.sql("UPDATE todo SET finished = true, version = NEXT VALUE FOR todo_version_seq"
+                + " WHERE finished = false AND todo_id IN (:todoIds)")
+                .bind("todoIds", todoIds)
+                .fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> deleteAllById(List<Long> todoIds) {
+        return databaseClient.sql("DELETE FROM todo WHERE todo_id IN (:todoIds)")
+                .bind("todoIds", todoIds)
+                .fetch().rowsUpdated();
+    }
+
+    public Mono<String> findAggregateVersion() {
+        return databaseClient.sql("SELECT COUNT(*) || '-' || COALESCE(MAX(version), 0) FROM todo")
+                .map(row -> row.get(0, String.class))
+                .one();
+    }
+
+    public Mono<Integer> incrementUnfinishedCount(long delta, long max) {
+        return databaseClient.sql("UPDATE todo_counter SET counter_value = counter_value + :delta"
+                + " WHERE counter_name = 'unfinished' AND counter_value + :delta <= :max")
+                .bind("delta", delta)
+                .bind("max", max)
+                .fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> decrementUnfinishedCount(long delta) {
+        return databaseClient.sql("UPDATE todo_counter SET counter_value = counter_value - :delta"
+                + " WHERE counter_name = 'unfinished'")
+                .bind("delta", delta)
+                .fetch().rowsUpdated();
+    }
+
+    private static Todo toTodo(Row row) {
+        return new Todo(row.get("todo_id", Long.class), row.get("todo_title", String.class),
+                row.get("finished", Boolean.class), row.get("created_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+
+    private static Todo setGeneratedKeys(Todo todo, Row row) {
+        todo.setTodoId(row.get("todo_id", Long.class));
+        todo.setVersion(row.get("version", Long.class));
+        return todo;
+    }
+}
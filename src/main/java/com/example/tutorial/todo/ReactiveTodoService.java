@@ -0,0 +1,35 @@
+package com.example.tutorial.todo;
+
+import java.util.Collection;
+import java.util.List;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveTodoService {
+
+    Mono<Todo> findOne(Long todoId);
+
+    Flux<Todo> findAll();
+
+    Flux<Todo> findAll(TodoCriteria criteria);
+
+    Mono<String> findAggregateVersion();
+
+    Mono<TodoPage> findPage(TodoCriteria criteria, TodoCursor after, int limit);
+
+    Flux<Todo> exportAll();
+
+    Mono<Todo> create(Todo todo);
+
+    Mono<List<Todo>> createAll(List<Todo> todos);
+
+    Mono<Todo> finish(Long todoId);
+
+    Mono<Todo> finish(Long todoId, long version);
+
+    Mono<List<TodoBulkResult>> finishAll(Collection<Long> todoIds);
+
+    Mono<Void> delete(Long todoId);
+
+    Mono<List<TodoBulkResult>> deleteAll(Collection<Long> todoIds);
+}
@@ -0,0 +1,211 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import com.example.tutorial.common.exception.BusinessException;
+import com.example.tutorial.common.exception.PreconditionFailedException;
+import com.example.tutorial.common.exception.ResourceNotFoundException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveTodoServiceImpl implements ReactiveTodoService {
+
+    private static final long MAX_UNFINISHED_COUNT = 5;
+
+    private static final int INSERT_CHUNK_SIZE = 100;
+
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    @Autowired
+    ReactiveTodoRepository todoRepository;
+
+    @Autowired
+    TransactionalOperator transactionalOperator;
+
+    @Override
+    public Mono<Todo> findOne(Long todoId) {
+        return todoRepository.findById(todoId).switchIfEmpty(Mono.error(() -> notFound(todoId)));
+    }
+
+    @Override
+    public Flux<Todo> findAll() {
+        return todoRepository.findAll();
+    }
+
+    @Override
+    public Flux<Todo> findAll(TodoCriteria criteria) {
+        return todoRepository.findByCriteria(criteria, null, null);
+    }
+
+    @Override
+    public Mono<String> findAggregateVersion() {
+        return todoRepository.findAggregateVersion();
+    }
+
+    @Override
+    public Mono<TodoPage> findPage(TodoCriteria criteria, TodoCursor after, int limit) {
+        return todoRepository.findByCriteria(criteria, after, limit + 1).collectList().map(todos -> {
+            if (todos.size() <= limit) {
+                return new TodoPage(todos, null);
+            }
+            List<Todo> page = new ArrayList<>(todos.subList(0, limit));
+            return new TodoPage(page, TodoCursor.of(page.get(limit - 1)));
+        });
+    }
+
+    @Override
+    public Flux<Todo> exportAll() {
+        return todoRepository.scanAll();
+    }
+
+    @Override
+    public Mono<Todo> create(Todo todo) {
+        return reserveUnfinished(1)
+                .then(Mono.defer(() -> {
+                    todo.setCreatedAt(LocalDateTime.now());
+                    todo.setFinished(false);
+                    return todoRepository.create(todo);
+                }))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<List<Todo>> createAll(List<Todo> todos) {
+        return reserveUnfinished(todos.size())
+                .thenMany(Flux.defer(() -> {
+                    LocalDateTime createdAt = LocalDateTime.now();
+                    for (Todo todo : todos) {
+                        todo.setCreatedAt(createdAt);
+                        todo.setFinished(false);
+                    }
+                    return Flux.fromIterable(chunk(todos, INSERT_CHUNK_SIZE)).concatMap(todoRepository::createAll);
+                }))
+                .then(Mono.fromSupplier(() -> todos))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Todo> finish(Long todoId) {
+        return todoRepository.updateById(todoId)
+                .flatMap(count -> (count == 0)
+                        ? findOne(todoId).flatMap(todo -> Mono.<Todo>error(alreadyFinished(todoId)))
+                        : finished(todoId))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Todo> finish(Long todoId, long version) {
+        return todoRepository.updateByIdAndVersion(todoId, version)
+                .flatMap(count -> (count == 0)
+                        ? findOne(todoId).flatMap(todo -> Mono.<Todo>error((todo.getVersion() != version)
+                                ? new PreconditionFailedException("The requested Todo has been modified. (id=" + todoId
+                                        + ", version=" + todo.getVersion() + ")")
+                                : alreadyFinished(todoId)))
+                        : finished(todoId))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<List<TodoBulkResult>> finishAll(Collection<Long> todoIds) {
+        return Flux.fromIterable(chunk(new ArrayList<>(new LinkedHashSet<>(todoIds)), BULK_CHUNK_SIZE))
+                .concatMap(chunk -> lockAll(chunk).flatMapMany(todos -> {
+                    List<TodoBulkResult> results = new ArrayList<>(chunk.size());
+                    List<Long> targetIds = new ArrayList<>(chunk.size());
+                    for (Long todoId : chunk) {
+                        Todo todo = todos.get(todoId);
+                        if (todo == null) {
+                            results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.NOT_FOUND));
+                        } else if (todo.isFinished()) {
+                            results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.ALREADY_FINISHED));
+                        } else {
+                            results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.DONE));
+                            targetIds.add(todoId);
+                        }
+                    }
+                    Mono<Integer> update = targetIds.isEmpty() ? Mono.empty()
+                            : todoRepository.updateAllById(targetIds)
+                                    .then(todoRepository.decrementUnfinishedCount(targetIds.size()));
+                    return update.thenMany(Flux.fromIterable(results));
+                }))
+                .collectList()
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Void> delete(Long todoId) {
+        return todoRepository.findByIdForUpdate(todoId)
+                .switchIfEmpty(Mono.error(() -> notFound(todoId)))
+                .flatMap(todo -> todoRepository.deleteById(todoId)
+                        .then(todo.isFinished() ? Mono.empty() : todoRepository.decrementUnfinishedCount(1)))
+                .then()
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<List<TodoBulkResult>> deleteAll(Collection<Long> todoIds) {
+        return Flux.fromIterable(chunk(new ArrayList<>(new LinkedHashSet<>(todoIds)), BULK_CHUNK_SIZE))
+                .concatMap(chunk -> lockAll(chunk).flatMapMany(todos -> {
+                    List<TodoBulkResult> results = new ArrayList<>(chunk.size());
+                    long unfinishedCount = 0;
+                    for (Long todoId : chunk) {
+                        Todo todo = todos.get(todoId);
+                        if (todo == null) {
+                            results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.NOT_FOUND));
+                        } else {
+                            results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.DONE));
+                            unfinishedCount += todo.isFinished() ? 0 : 1;
+                        }
+                    }
+                    Mono<Integer> delete = todos.isEmpty() ? Mono.empty()
+                            : todoRepository.deleteAllById(new ArrayList<>(todos.keySet()));
+                    Mono<Integer> decrement = (unfinishedCount == 0) ? Mono.empty()
+                            : todoRepository.decrementUnfinishedCount(unfinishedCount);
+                    return delete.then(decrement).thenMany(Flux.fromIterable(results));
+                }))
+                .collectList()
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> reserveUnfinished(long count) {
+        return todoRepository.incrementUnfinishedCount(count, MAX_UNFINISHED_COUNT)
+                .flatMap(updated -> (updated == 0)
+                        ? Mono.error(new BusinessException(
+                                "The count of un-finished Todo must not be over " + MAX_UNFINISHED_COUNT + "."))
+                        : Mono.empty());
+    }
+
+    private <T> List<List<T>> chunk(List<T> values, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += size) {
+            chunks.add(values.subList(from, Math.min(from + size, values.size())));
+        }
+        return chunks;
+    }
+
+    private Mono<Map<Long, Todo>> lockAll(List<Long> todoIds) {
+        return todoRepository.findAllByIdForUpdate(todoIds).collectMap(Todo::getTodoId);
+    }
+
+    private Mono<Todo> finished(Long todoId) {
+        return todoRepository.decrementUnfinishedCount(1).then(findOne(todoId));
+    }
+
+    private BusinessException alreadyFinished(Long todoId) {
+        return new BusinessException("The requested Todo is already finished. (id=" + todoId + ")");
+    }
+
+    private ResourceNotFoundException notFound(Long todoId) {
+        return new ResourceNotFoundException("The requested Todo is not found. (id=" + todoId + ")");
+    }
+
+}
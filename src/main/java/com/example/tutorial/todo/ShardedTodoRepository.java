@@ -0,0 +1,470 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import com.example.tutorial.common.mybatis.MergingCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Routes single-todo statements to the shard picked by hashing todoId, and fans table-wide reads out to every shard in
+ * parallel. Ids are handed out in blocks from todo_id_seq on shard 0, which also holds the unfinished counter. Rows
+ * that do not sit on their hash shard, such as those written to shard 0 before sharding was enabled, are moved there
+ * on startup.
+ * Fan-out queries run on the fan-out pool and therefore outside the caller's transaction; statements that lock rows
+ * or write run on the caller's thread, shard by shard in ascending order.
+ */
+public class ShardedTodoRepository implements TodoRepository, TodoChangeLog, SmartInitializingSingleton,
+        DisposableBean {
+
+    static final String TIMER_NAME = "todo.shard.query";
+
+    // has to match INCREMENT BY of todo_id_seq
+    static final long ID_BLOCK_SIZE = 100;
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedTodoRepository.class);
+
+    private static final int COORDINATOR = 0;
+
+    private static final int RELOCATE_CHUNK_SIZE = 500;
+
+    private static final Comparator<Todo> BY_ID = Comparator.comparing(Todo::getTodoId);
+
+    private static final Comparator<Todo> BY_CREATED_AT = Comparator.comparing(Todo::getCreatedAt)
+            .thenComparing(Todo::getTodoId);
+
+    private final List<TodoRepository> shards;
+
+    private final List<TodoChangeMapper> changeMappers;
+
+    private final List<TodoShardMapper> shardMappers;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor fanOutExecutor;
+
+    private long nextId;
+
+    private long idBlockEnd;
+
+    ShardedTodoRepository(List<TodoRepository> shards, List<TodoChangeMapper> changeMappers,
+            List<TodoShardMapper> shardMappers, TodoShardingProperties properties, MeterRegistry meterRegistry) {
+        this.shards = List.copyOf(shards);
+        this.changeMappers = List.copyOf(changeMappers);
+        this.shardMappers = List.copyOf(shardMappers);
+        this.meterRegistry = meterRegistry;
+        this.fanOutExecutor = new ThreadPoolExecutor(properties.getFanOutThreads(), properties.getFanOutThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getFanOutQueueCapacity()),
+                new CustomizableThreadFactory("todo-shard-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Moves misplaced rows to their hash shard and todo_id_seq past every id in use before the first todo is created.
+     * The counter in schema.sql is resynchronized from shard 0 alone, so count across all shards once they are up.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        relocateMisplacedTodos();
+        skipUsedIds();
+        updateUnfinishedCount(countByFinished(false));
+    }
+
+    @Override
+    public void destroy() {
+        fanOutExecutor.shutdown();
+    }
+
+    int shardOf(Long todoId) {
+        return Math.floorMod(Long.hashCode(todoId * 0x9E3779B97F4A7C15L), shards.size());
+    }
+
+    @Override
+    public Optional<Todo> findById(Long todoId) {
+        return call(shardOf(todoId), "findById", shard -> shard.findById(todoId));
+    }
+
+    @Override
+    public Collection<Todo> findAll() {
+        List<Todo> todos = new ArrayList<>();
+        fanOut("findAll", TodoRepository::findAll).forEach(todos::addAll);
+        return todos;
+    }
+
+    @Override
+    public List<Todo> findByCriteria(TodoCriteria criteria, TodoCursor after, Integer limit) {
+        Comparator<Todo> order = criteria.getSort().isDescending() ? BY_CREATED_AT.reversed() : BY_CREATED_AT;
+        return fanOut("findByCriteria", shard -> shard.findByCriteria(criteria, after, limit)).stream()
+                .flatMap(List::stream)
+                .sorted(order)
+                .limit(limit == null ? Long.MAX_VALUE : limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Each shard returns its own oldest candidates; which shard's todos fill the limit first does not matter, as the
+     * archiver keeps going until none are left.
+     */
+    @Override
+    public List<Long> findArchivableIds(LocalDateTime createdBefore, int limit) {
+        return fanOut("findArchivableIds", shard -> shard.findArchivableIds(createdBefore, limit)).stream()
+                .flatMap(List::stream)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long archiveAllById(List<Long> todoIds) {
+        return byShard(todoIds, Function.identity()).entrySet().stream()
+                .mapToLong(entry -> call(entry.getKey(), "archiveAllById",
+                        repository -> repository.archiveAllById(entry.getValue())))
+                .sum();
+    }
+
+    @Override
+    public Cursor<Todo> scanAll() {
+        List<Cursor<Todo>> cursors = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            cursors.add(call(shard, "scanAll", TodoRepository::scanAll));
+        }
+        return new MergingCursor<>(cursors, BY_ID);
+    }
+
+    @Override
+    public void create(Todo todo) {
+        assignId(todo);
+        createWithId(todo);
+    }
+
+    @Override
+    public void createAll(List<Todo> todos) {
+        todos.forEach(this::assignId);
+        createAllWithId(todos);
+    }
+
+    @Override
+    public void createWithId(Todo todo) {
+        run(shardOf(todo.getTodoId()), "createWithId", shard -> shard.createWithId(todo));
+    }
+
+    @Override
+    public void createAllWithId(List<Todo> todos) {
+        byShard(todos, Todo::getTodoId).forEach((shard, shardTodos) -> run(shard, "createAllWithId",
+                repository -> repository.createAllWithId(shardTodos)));
+    }
+
+    @Override
+    public long nextIdBlock() {
+        return call(COORDINATOR, "nextIdBlock", TodoRepository::nextIdBlock);
+    }
+
+    @Override
+    public List<Todo> findAllById(List<Long> todoIds) {
+        List<Todo> todos = new ArrayList<>(todoIds.size());
+        byShard(todoIds, Function.identity()).forEach((shard, shardIds) -> todos
+                .addAll(call(shard, "findAllById", repository -> repository.findAllById(shardIds))));
+        return todos;
+    }
+
+    @Override
+    public Optional<Todo> findByIdForUpdate(Long todoId) {
+        return call(shardOf(todoId), "findByIdForUpdate", shard -> shard.findByIdForUpdate(todoId));
+    }
+
+    @Override
+    public long updateById(Long todoId) {
+        return call(shardOf(todoId), "updateById", shard -> shard.updateById(todoId));
+    }
+
+    @Override
+    public long updateByIdAndVersion(Long todoId, long version) {
+        return call(shardOf(todoId), "updateByIdAndVersion", shard -> shard.updateByIdAndVersion(todoId, version));
+    }
+
+    @Override
+    public long deleteById(Long todoId) {
+        return call(shardOf(todoId), "deleteById", shard -> shard.deleteById(todoId));
+    }
+
+    @Override
+    public List<Todo> findAllByIdForUpdate(List<Long> todoIds) {
+        List<Todo> todos = new ArrayList<>(todoIds.size());
+        byShard(todoIds, Function.identity()).forEach((shard, shardIds) -> todos
+                .addAll(call(shard, "findAllByIdForUpdate", repository -> repository.findAllByIdForUpdate(shardIds))));
+        return todos;
+    }
+
+    @Override
+    public long updateAllById(List<Long> todoIds) {
+        return byShard(todoIds, Function.identity()).entrySet().stream()
+                .mapToLong(entry -> call(entry.getKey(), "updateAllById",
+                        repository -> repository.updateAllById(entry.getValue())))
+                .sum();
+    }
+
+    @Override
+    public long deleteAllById(List<Long> todoIds) {
+        return byShard(todoIds, Function.identity()).entrySet().stream()
+                .mapToLong(entry -> call(entry.getKey(), "deleteAllById",
+                        repository -> repository.deleteAllById(entry.getValue())))
+                .sum();
+    }
+
+    @Override
+    public void createTombstones(List<Long> todoIds) {
+        byShard(todoIds, Function.identity()).forEach((shard, shardIds) -> run(shard, "createTombstones",
+                repository -> repository.createTombstones(shardIds)));
+    }
+
+    /**
+     * Each shard is read from its own position in the token, with an equal share of the limit. The combined changes
+     * are only ordered by version within a shard. A client can only discard everything, so if one shard has to
+     * reset, all of them are read again from the start.
+     */
+    @Override
+    public TodoChanges findChanges(TodoSyncToken since, int limit) {
+        int shardLimit = Math.max(1, (limit + shards.size() - 1) / shards.size());
+        if (since != null && since.getVersions().size() == shards.size()) {
+            List<TodoChanges> shardChanges = fanOut("findChanges",
+                    (shard, repository) -> changeMappers.get(shard).findChanges(since.shard(shard), shardLimit));
+            if (shardChanges.stream().noneMatch(TodoChanges::isReset)) {
+                return combine(shardChanges, false);
+            }
+        }
+        return combine(fanOut("findChanges",
+                (shard, repository) -> changeMappers.get(shard).findChanges(null, shardLimit)), true);
+    }
+
+    @Override
+    public long purgeTombstones(LocalDateTime deletedBefore) {
+        long purged = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            TodoChangeMapper changeMapper = changeMappers.get(shard);
+            purged += call(shard, "purgeTombstones", repository -> changeMapper.purgeTombstones(deletedBefore));
+        }
+        return purged;
+    }
+
+    /**
+     * Versions come from a sequence per shard, so the per-shard aggregates are kept side by side instead of being
+     * reduced to a single maximum.
+     */
+    @Override
+    public String findAggregateVersion() {
+        return String.join(".", fanOut("findAggregateVersion", TodoRepository::findAggregateVersion));
+    }
+
+    @Override
+    public long countByFinished(boolean finished) {
+        return fanOut("countByFinished", shard -> shard.countByFinished(finished)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public long findUnfinishedCount() {
+        return call(COORDINATOR, "findUnfinishedCount", TodoRepository::findUnfinishedCount);
+    }
+
+    @Override
+    public long findUnfinishedCountForUpdate() {
+        return call(COORDINATOR, "findUnfinishedCountForUpdate", TodoRepository::findUnfinishedCountForUpdate);
+    }
+
+    /**
+     * Every shard has its own version sequence, so every shard is locked, in ascending order like other writes.
+     */
+    @Override
+    public long lockVersions() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            call(shard, "lockVersions", TodoRepository::lockVersions);
+        }
+        return 0;
+    }
+
+    /**
+     * Only the shards of the given todos are locked, in ascending order, so writes to other shards go on in parallel.
+     */
+    @Override
+    public long lockVersions(Collection<Long> todoIds) {
+        byShard(todoIds, Function.identity()).keySet()
+                .forEach(shard -> call(shard, "lockVersions", TodoRepository::lockVersions));
+        return 0;
+    }
+
+    /**
+     * Assigns the ids up front, as they decide the shards to lock; create and createAll keep them.
+     */
+    @Override
+    public long lockVersionsForCreate(List<Todo> todos) {
+        todos.forEach(todo -> todo.setTodoId(nextId()));
+        return lockVersions(todos.stream().map(Todo::getTodoId).collect(Collectors.toList()));
+    }
+
+    @Override
+    public long incrementUnfinishedCount(long delta, long max) {
+        return call(COORDINATOR, "incrementUnfinishedCount", shard -> shard.incrementUnfinishedCount(delta, max));
+    }
+
+    @Override
+    public long decrementUnfinishedCount(long delta) {
+        return call(COORDINATOR, "decrementUnfinishedCount", shard -> shard.decrementUnfinishedCount(delta));
+    }
+
+    @Override
+    public long updateUnfinishedCount(long count) {
+        return call(COORDINATOR, "updateUnfinishedCount", shard -> shard.updateUnfinishedCount(count));
+    }
+
+    private void assignId(Todo todo) {
+        if (todo.getTodoId() == null) {
+            todo.setTodoId(nextId());
+        }
+    }
+
+    private synchronized long nextId() {
+        if (nextId == idBlockEnd) {
+            nextId = nextIdBlock();
+            idBlockEnd = nextId + ID_BLOCK_SIZE;
+        }
+        return nextId++;
+    }
+
+    /**
+     * Runs without a transaction, statement by statement. Each chunk is copied before it is deleted from its source,
+     * and rows already on the target are not copied again, so a start that fails halfway is completed by the next.
+     */
+    private void relocateMisplacedTodos() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int source = shard;
+            List<Long> misplacedIds = call(source, "findAllIds", repository -> shardMappers.get(source).findAllIds())
+                    .stream()
+                    .filter(todoId -> shardOf(todoId) != source)
+                    .collect(Collectors.toList());
+            for (int from = 0; from < misplacedIds.size(); from += RELOCATE_CHUNK_SIZE) {
+                List<Long> chunk = misplacedIds.subList(from,
+                        Math.min(from + RELOCATE_CHUNK_SIZE, misplacedIds.size()));
+                List<Todo> todos = call(source, "findAllById", repository -> repository.findAllById(chunk));
+                byShard(todos, Todo::getTodoId).forEach((target, targetTodos) -> {
+                    Set<Long> copiedIds = call(target, "findAllById", repository -> repository.findAllById(
+                            targetTodos.stream().map(Todo::getTodoId).collect(Collectors.toList()))).stream()
+                            .map(Todo::getTodoId)
+                            .collect(Collectors.toSet());
+                    List<Todo> missing = targetTodos.stream()
+                            .filter(todo -> !copiedIds.contains(todo.getTodoId()))
+                            .collect(Collectors.toList());
+                    if (!missing.isEmpty()) {
+                        run(target, "createAllWithId", repository -> repository.createAllWithId(missing));
+                    }
+                });
+                run(source, "deleteAllById", repository -> repository.deleteAllById(chunk));
+            }
+            if (!misplacedIds.isEmpty()) {
+                logger.info("Moved {} todos from shard {} to their hash shards", misplacedIds.size(), source);
+            }
+        }
+    }
+
+    /**
+     * todo_id_seq starts at 1 even if shard 0 already holds todos from before sharding was enabled.
+     */
+    private synchronized void skipUsedIds() {
+        long maxId = fanOut("findMaxTodoId", (shard, repository) -> shardMappers.get(shard).findMaxTodoId())
+                .stream()
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0);
+        long idBlock = nextIdBlock();
+        if (idBlock <= maxId) {
+            TodoShardMapper coordinator = shardMappers.get(COORDINATOR);
+            run(COORDINATOR, "restartIdSequence", repository -> coordinator.restartIdSequence(maxId + 1));
+            idBlock = nextIdBlock();
+        }
+        nextId = idBlock;
+        idBlockEnd = idBlock + ID_BLOCK_SIZE;
+    }
+
+    private <T> Map<Integer, List<T>> byShard(Collection<T> items, Function<T, Long> todoId) {
+        return items.stream()
+                .collect(Collectors.groupingBy(item -> shardOf(todoId.apply(item)), TreeMap::new, Collectors.toList()));
+    }
+
+    private TodoChanges combine(List<TodoChanges> shardChanges, boolean reset) {
+        List<Todo> todos = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        List<Long> versions = new ArrayList<>(shardChanges.size());
+        List<Long> deletedVersions = new ArrayList<>(shardChanges.size());
+        boolean hasMore = false;
+        for (TodoChanges changes : shardChanges) {
+            todos.addAll(changes.getTodos());
+            deletedIds.addAll(changes.getDeletedIds());
+            versions.add(changes.getNext().getVersions().get(0));
+            deletedVersions.add(changes.getNext().getDeletedVersions().get(0));
+            hasMore |= changes.isHasMore();
+        }
+        return new TodoChanges(todos, deletedIds, new TodoSyncToken(versions, deletedVersions), hasMore, reset);
+    }
+
+    private <T> List<T> fanOut(String method, Function<TodoRepository, T> statement) {
+        return fanOut(method, (shard, repository) -> statement.apply(repository));
+    }
+
+    private <T> List<T> fanOut(String method, BiFunction<Integer, TodoRepository, T> statement) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> call(target, method, repository -> statement.apply(target, repository)), fanOutExecutor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        return results;
+    }
+
+    private void run(int shard, String method, Consumer<TodoRepository> statement) {
+        call(shard, method, repository -> {
+            statement.accept(repository);
+            return null;
+        });
+    }
+
+    private <T> T call(int shard, String method, Function<TodoRepository, T> statement) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return statement.apply(shards.get(shard));
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .description("TodoRepository statement latency per shard")
+                    .tag("shard", String.valueOf(shard))
+                    .tag("method", method)
+                    .register(meterRegistry));
+        }
+    }
+}
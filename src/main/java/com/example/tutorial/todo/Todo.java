@@ -22,4 +22,10 @@ public class Todo implements Serializable {
     private boolean finished;
 
     private LocalDateTime createdAt;
+
+    private long version;
+
+    public Todo(Long todoId, String todoTitle, boolean finished, LocalDateTime createdAt) {
+        this(todoId, todoTitle, finished, createdAt, 0L);
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.tutorial.todo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "tutorial.todo.archive", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(TodoArchiveProperties.class)
+@Profile("!reactive")
+public class TodoArchiveConfig {
+
+    @Bean
+    public TodoArchiver todoArchiver(TodoService todoService, TodoArchiveProperties properties,
+            MeterRegistry meterRegistry) {
+        return new TodoArchiver(todoService, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.tutorial.todo;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.todo.archive")
+public class TodoArchiveProperties {
+
+    private boolean enabled = false;
+
+    // finished todos created longer ago than this are archived
+    private Duration age = Duration.ofDays(30);
+
+    private Duration interval = Duration.ofHours(1);
+
+    private int batchSize = 500;
+
+    // between two batches of the same run, to leave room for request traffic
+    private Duration pause = Duration.ofMillis(200);
+}
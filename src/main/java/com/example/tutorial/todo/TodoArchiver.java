@@ -0,0 +1,140 @@
+package com.example.tutorial.todo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Moves finished todos created more than age ago from todo to todo_archive every interval, so that the todo table
+ * and its indexes only hold what is still being read. A run archives in batches of at most batchSize todos, each in
+ * its own short transaction, and pauses between batches so that it never holds many row locks or a connection for
+ * long. The run ends with the first batch that comes back short.
+ */
+public class TodoArchiver implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoArchiver.class);
+
+    static final String ROWS_COUNTER_NAME = "todo.archive.rows";
+
+    static final String BATCH_TIMER_NAME = "todo.archive.batch";
+
+    private final TodoService todoService;
+
+    private final TodoArchiveProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter rows;
+
+    private final Timer batches;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition stopped = lock.newCondition();
+
+    private volatile boolean running;
+
+    private Thread archiver;
+
+    public TodoArchiver(TodoService todoService, TodoArchiveProperties properties, MeterRegistry meterRegistry) {
+        this.todoService = todoService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.rows = Counter.builder(ROWS_COUNTER_NAME)
+                .description("Finished todos moved to todo_archive")
+                .register(meterRegistry);
+        this.batches = Timer.builder(BATCH_TIMER_NAME)
+                .description("Duration of one archive batch transaction")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archives the todos that are due now and returns how many were moved. A run also ends once the archiver has been
+     * stopped.
+     */
+    public long archive() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(properties.getAge());
+        long total = 0;
+        while (true) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            int moved;
+            try {
+                moved = todoService.archiveFinished(createdBefore, properties.getBatchSize());
+            } finally {
+                sample.stop(batches);
+            }
+            rows.increment(moved);
+            total += moved;
+            if (moved < properties.getBatchSize() || !await(properties.getPause())) {
+                return total;
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        archiver = new Thread(this::run, "todo-archiver");
+        archiver.setDaemon(true);
+        archiver.start();
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            stopped.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            archiver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (await(properties.getInterval())) {
+            try {
+                long moved = archive();
+                if (moved > 0) {
+                    logger.info("Archived {} finished todos", moved);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to archive finished todos", e);
+            }
+        }
+    }
+
+    // waits for timeout and returns whether the archiver is still running
+    private boolean await(Duration timeout) {
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (running && remaining > 0) {
+                remaining = stopped.awaitNanos(remaining);
+            }
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.tutorial.todo;
+
+import java.io.Serializable;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+
+@Getter
+public class TodoBatchResource implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotEmpty
+    @Size(max = 1000)
+    private final List<@NotNull @Valid TodoResource> todos;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public TodoBatchResource(List<TodoResource> todos) {
+        this.todos = todos;
+    }
+
+    @JsonValue
+    public List<TodoResource> getTodos() {
+        return todos;
+    }
+}
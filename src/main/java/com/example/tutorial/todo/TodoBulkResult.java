@@ -0,0 +1,22 @@
+package com.example.tutorial.todo;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoBulkResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long todoId;
+
+    private Status status;
+
+    public enum Status {
+        DONE, NOT_FOUND, ALREADY_FINISHED
+    }
+}
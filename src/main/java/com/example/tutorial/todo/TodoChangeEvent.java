@@ -0,0 +1,30 @@
+package com.example.tutorial.todo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A committed change of one todo, sent as the data of a change feed event. The todo is the state right after the
+ * change and is left out for DELETED and ARCHIVED.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TodoChangeEvent {
+
+    @JsonIgnore
+    private final long sequence;
+
+    private final Type type;
+
+    private final Long todoId;
+
+    private final TodoResource todo;
+
+    public enum Type {
+
+        CREATED, FINISHED, DELETED, ARCHIVED
+    }
+}
@@ -0,0 +1,396 @@
+package com.example.tutorial.todo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events feed of committed todo changes. Changes registered inside a transaction are numbered and appended
+ * to a ring buffer of the last capacity events only after it commits, so rolled-back work never shows up. Each
+ * subscriber is an async {@link SseEmitter} with a cursor into the buffer; a single dispatcher thread queues the
+ * events past its cursor for every subscriber, so a resumed subscriber (Last-Event-ID) simply starts with an older
+ * cursor. SseEmitter only has blocking writes, so they are left to a small writer pool, one task per subscriber at a
+ * time, and a slow client never holds up the dispatcher. A subscriber whose queue is full is dropped and resumes from
+ * its Last-Event-ID when it reconnects.
+ * Event ids are the sequence prefixed with the epoch of this instance, as the sequence starts over on every start. A
+ * subscriber whose cursor has fallen out of the buffer, or whose id comes from another instance, gets a "reset" event
+ * and has to reload the todos.
+ */
+public class TodoChangeFeed implements SmartLifecycle, ApplicationListener<ContextClosedEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoChangeFeed.class);
+
+    static final String RESET_EVENT = "reset";
+
+    // queued after the pending events of a subscriber that is to be completed
+    private static final SseEmitter.SseEventBuilder CLOSE = SseEmitter.event();
+
+    private final TodoResourceMapper todoResourceMapper;
+
+    private final TodoChangeFeedProperties properties;
+
+    private final TodoChangeEvent[] events;
+
+    private final String epoch = String.valueOf(System.currentTimeMillis());
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = lock.newCondition();
+
+    // guarded by lock
+    private long lastSequence;
+
+    // guarded by lock
+    private boolean pending;
+
+    private volatile boolean running;
+
+    private volatile boolean closing;
+
+    private Thread dispatcher;
+
+    private ExecutorService writers;
+
+    public TodoChangeFeed(TodoResourceMapper todoResourceMapper, TodoChangeFeedProperties properties) {
+        this.todoResourceMapper = todoResourceMapper;
+        this.properties = properties;
+        this.events = new TodoChangeEvent[properties.getCapacity()];
+    }
+
+    public void createdAfterCommit(Collection<Todo> todos) {
+        publishAfterCommit(TodoChangeEvent.Type.CREATED, todos);
+    }
+
+    public void finishedAfterCommit(Collection<Todo> todos) {
+        publishAfterCommit(TodoChangeEvent.Type.FINISHED, todos);
+    }
+
+    public void deletedAfterCommit(Collection<Long> todoIds) {
+        publishIdsAfterCommit(TodoChangeEvent.Type.DELETED, todoIds);
+    }
+
+    public void archivedAfterCommit(Collection<Long> todoIds) {
+        publishIdsAfterCommit(TodoChangeEvent.Type.ARCHIVED, todoIds);
+    }
+
+    /**
+     * Subscribes from the event after lastEventId, or from the next event if it is null.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(new SseEmitter(properties.getTimeout().toMillis()), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, String lastEventId) {
+        Subscriber subscriber;
+        lock.lock();
+        try {
+            long next = (lastEventId == null) ? lastSequence + 1 : nextSequence(lastEventId);
+            subscriber = new Subscriber(emitter, next, properties.getSubscriberQueueCapacity());
+            subscribers.add(subscriber);
+            signal();
+        } finally {
+            lock.unlock();
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        if (closing && subscribers.remove(subscriber)) {
+            close(subscriber);
+        }
+        return emitter;
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("todo-change-feed-writer-");
+        threadFactory.setDaemon(true);
+        writers = Executors.newFixedThreadPool(properties.getWriterThreads(), threadFactory);
+        dispatcher = new Thread(this::dispatch, "todo-change-feed");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        lock.lock();
+        try {
+            signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        subscribers.forEach(this::close);
+        subscribers.clear();
+        writers.shutdown();
+        try {
+            writers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Completes the open streams, and any opened later, when the context starts to close. That is before any
+     * lifecycle stops, so the streams do not hold up the web server's graceful shutdown.
+     */
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        closing = true;
+        for (Subscriber subscriber : subscribers) {
+            if (subscribers.remove(subscriber)) {
+                close(subscriber);
+            }
+        }
+    }
+
+    private void publishAfterCommit(TodoChangeEvent.Type type, Collection<Todo> todos) {
+        // mapped now, the todos may still be modified by the caller before the commit
+        List<TodoChangeEvent> changes = new ArrayList<>(todos.size());
+        todos.forEach(todo -> changes.add(
+                new TodoChangeEvent(0, type, todo.getTodoId(), todoResourceMapper.toResource(todo))));
+        afterCommit(() -> publish(changes));
+    }
+
+    private void publishIdsAfterCommit(TodoChangeEvent.Type type, Collection<Long> todoIds) {
+        List<TodoChangeEvent> changes = new ArrayList<>(todoIds.size());
+        todoIds.forEach(todoId -> changes.add(new TodoChangeEvent(0, type, todoId, null)));
+        afterCommit(() -> publish(changes));
+    }
+
+    private void publish(List<TodoChangeEvent> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (TodoChangeEvent change : changes) {
+                long sequence = ++lastSequence;
+                events[(int) (sequence % events.length)] = new TodoChangeEvent(sequence, change.getType(),
+                        change.getTodoId(), change.getTodo());
+            }
+            signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // an id of another instance, or one that is not an event id at all, is below any buffered sequence and resets
+    private long nextSequence(String lastEventId) {
+        String prefix = epoch + "-";
+        if (lastEventId.startsWith(prefix)) {
+            try {
+                return Long.parseLong(lastEventId.substring(prefix.length())) + 1;
+            } catch (NumberFormatException e) {
+                logger.debug("Resetting a change feed subscriber with an invalid Last-Event-ID", e);
+            }
+        }
+        return 0;
+    }
+
+    private void signal() {
+        pending = true;
+        changed.signal();
+    }
+
+    private void dispatch() {
+        long heartbeatNanos = properties.getHeartbeat().toNanos();
+        long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+        while (running) {
+            lock.lock();
+            try {
+                long remaining = nextHeartbeat - System.nanoTime();
+                while (!pending && running && remaining > 0) {
+                    remaining = changed.awaitNanos(remaining);
+                }
+                pending = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            boolean heartbeat = nextHeartbeat - System.nanoTime() <= 0;
+            if (heartbeat) {
+                nextHeartbeat = System.nanoTime() + heartbeatNanos;
+            }
+            for (Subscriber subscriber : subscribers) {
+                deliver(subscriber, heartbeat);
+            }
+        }
+    }
+
+    private void deliver(Subscriber subscriber, boolean heartbeat) {
+        List<TodoChangeEvent> backlog = new ArrayList<>();
+        boolean reset = false;
+        long resetSequence;
+        lock.lock();
+        try {
+            long oldest = Math.max(1, lastSequence - events.length + 1);
+            if (subscriber.next > lastSequence + 1 || subscriber.next < oldest) {
+                reset = true;
+                subscriber.next = lastSequence + 1;
+            }
+            for (long sequence = subscriber.next; sequence <= lastSequence; sequence++) {
+                backlog.add(events[(int) (sequence % events.length)]);
+            }
+            resetSequence = subscriber.next - 1;
+            subscriber.next = lastSequence + 1;
+        } finally {
+            lock.unlock();
+        }
+        List<SseEmitter.SseEventBuilder> batch = new ArrayList<>(backlog.size() + 1);
+        if (reset) {
+            batch.add(SseEmitter.event()
+                    .id(eventId(resetSequence))
+                    .name(RESET_EVENT)
+                    .data(resetSequence));
+        }
+        for (TodoChangeEvent event : backlog) {
+            batch.add(SseEmitter.event()
+                    .id(eventId(event.getSequence()))
+                    .name(event.getType().name().toLowerCase())
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+        if (heartbeat && batch.isEmpty() && subscriber.pending.isEmpty()) {
+            batch.add(SseEmitter.event().comment("heartbeat"));
+        }
+        for (SseEmitter.SseEventBuilder event : batch) {
+            if (!subscriber.pending.offer(event)) {
+                logger.debug("Dropping a change feed subscriber that fell behind");
+                subscribers.remove(subscriber);
+                close(subscriber);
+                return;
+            }
+        }
+        if (!batch.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    // the writer may be blocked in a send that holds the emitter's monitor, so completing is left to it as well
+    private void close(Subscriber subscriber) {
+        subscriber.pending.clear();
+        subscriber.pending.offer(CLOSE);
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.writing.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> write(subscriber));
+            } catch (RejectedExecutionException e) {
+                // stopped
+                subscriber.writing.set(false);
+            }
+        }
+    }
+
+    private void write(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.pending.poll()) != null) {
+                if (event == CLOSE) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client has gone away or the emitter has already been completed
+            logger.debug("Dropping a change feed subscriber", e);
+            subscribers.remove(subscriber);
+            subscriber.pending.clear();
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.writing.set(false);
+        }
+        // an event queued after the last poll would otherwise wait for the next one
+        if (!subscriber.pending.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // events queued by the dispatcher and not yet written
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+
+        // whether a write task for this subscriber is queued or running
+        private final AtomicBoolean writing = new AtomicBoolean();
+
+        // sequence of the next event to send, only read and written under lock
+        private long next;
+
+        Subscriber(SseEmitter emitter, long next, int queueCapacity) {
+            this.emitter = emitter;
+            this.next = next;
+            this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.tutorial.todo;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TodoChangeFeedProperties.class)
+@Profile("!reactive")
+public class TodoChangeFeedConfig {
+
+    @Bean
+    public TodoChangeFeed todoChangeFeed(TodoResourceMapper todoResourceMapper, TodoChangeFeedProperties properties) {
+        return new TodoChangeFeed(todoResourceMapper, properties);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.tutorial.todo;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.todo.change-feed")
+public class TodoChangeFeedProperties {
+
+    // number of recent events a reconnecting client can resume from
+    private int capacity = 10000;
+
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    // clients reconnect with Last-Event-ID once a stream times out
+    private Duration timeout = Duration.ofMinutes(30);
+
+    // events a subscriber may fall behind before it is dropped and has to reconnect
+    private int subscriberQueueCapacity = 1000;
+
+    private int writerThreads = 4;
+}
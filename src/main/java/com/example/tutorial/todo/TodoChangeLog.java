@@ -0,0 +1,21 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reads delta sync pages. Each store keeps its own version sequences, so the queries behind a page stay inside the
+ * implementation and only whole pages are exposed.
+ */
+public interface TodoChangeLog {
+
+    /**
+     * Returns up to limit changes after since, or a reset page from the start if since is null, does not fit or
+     * needs tombstones that have been purged.
+     */
+    TodoChanges findChanges(TodoSyncToken since, int limit);
+
+    /**
+     * Purges the tombstones of todos deleted before deletedBefore and returns how many were removed.
+     */
+    long purgeTombstones(LocalDateTime deletedBefore);
+}
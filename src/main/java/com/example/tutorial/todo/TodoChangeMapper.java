@@ -0,0 +1,103 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * {@link TodoChangeLog} of one database. The queries read a single version sequence, so they are only meaningful per
+ * database and are not part of {@link TodoRepository}.
+ */
+@Mapper
+interface TodoChangeMapper extends TodoChangeLog {
+
+    /**
+     * Changed todos after since and, unless reset, tombstones after deletedSince in one statement, so that both are
+     * read from the same committed state.
+     */
+    @Select({"<script>",
+            "SELECT todo_id, todo_title, finished, created_at, version, FALSE AS deleted FROM todo",
+            "WHERE version &gt; #{since}",
+            "<if test='!reset'>",
+            "UNION ALL",
+            "SELECT todo_id, NULL, NULL, NULL, version, TRUE FROM todo_tombstone WHERE version &gt; #{deletedSince}",
+            "</if>",
+            "ORDER BY version LIMIT #{limit}",
+            "</script>"})
+    List<TodoChangeRow> findChangeRows(@Param("since") long since, @Param("deletedSince") long deletedSince,
+            @Param("reset") boolean reset, @Param("limit") int limit);
+
+    /**
+     * The highest committed version. Versions are only taken under {@link TodoRepository#lockVersions()}, so any
+     * change committed later gets a higher one.
+     */
+    @Select("SELECT GREATEST(COALESCE((SELECT MAX(version) FROM todo), 0),"
+            + " COALESCE((SELECT MAX(version) FROM todo_tombstone), 0))")
+    long findMaxVersion();
+
+    /**
+     * Tombstones up to this version have been purged; a token that still needs them has to reset.
+     */
+    @Select("SELECT counter_value FROM todo_counter WHERE counter_name = 'tombstone_horizon'")
+    long findTombstoneHorizon();
+
+    @Select("SELECT COALESCE(MAX(version), 0) FROM todo_tombstone WHERE deleted_at < #{deletedBefore}")
+    long findPurgeableVersion(LocalDateTime deletedBefore);
+
+    @Update("UPDATE todo_counter SET counter_value = GREATEST(counter_value, #{version})"
+            + " WHERE counter_name = 'tombstone_horizon'")
+    void raiseTombstoneHorizon(long version);
+
+    @Delete("DELETE FROM todo_tombstone WHERE version <= #{version}")
+    long deleteTombstonesUpTo(long version);
+
+    /**
+     * Reads up to limit changes after since through idx_todo_version and idx_todo_tombstone_version, so the cost
+     * follows the number of changes rather than the size of the table. The horizon is read after the rows: a purge
+     * that removed tombstones they should have included has committed by then and is seen.
+     */
+    @Override
+    default TodoChanges findChanges(TodoSyncToken since, int limit) {
+        if (since != null && since.getVersions().size() == 1) {
+            long deletedSince = since.getDeletedVersions().get(0);
+            List<TodoChangeRow> rows = findChangeRows(since.getVersions().get(0), deletedSince, false, limit + 1);
+            if (deletedSince >= findTombstoneHorizon()) {
+                return toChanges(rows, since, limit, false);
+            }
+        }
+        // deletions up to the current version concern todos the reset will not return
+        TodoSyncToken start = TodoSyncToken.of(0, findMaxVersion());
+        return toChanges(findChangeRows(0, 0, true, limit + 1), start, limit, true);
+    }
+
+    /**
+     * Raises the horizon to the newest tombstone deleted before deletedBefore and removes the tombstones up to it.
+     */
+    @Override
+    default long purgeTombstones(LocalDateTime deletedBefore) {
+        long version = findPurgeableVersion(deletedBefore);
+        if (version == 0) {
+            return 0;
+        }
+        raiseTombstoneHorizon(version);
+        return deleteTombstonesUpTo(version);
+    }
+
+    private static TodoChanges toChanges(List<TodoChangeRow> rows, TodoSyncToken since, int limit, boolean reset) {
+        List<Todo> todos = new ArrayList<>();
+        List<TodoTombstone> tombstones = new ArrayList<>();
+        for (TodoChangeRow row : rows) {
+            if (row.isDeleted()) {
+                tombstones.add(row.toTombstone());
+            } else {
+                todos.add(row.toTodo());
+            }
+        }
+        return TodoChanges.merge(todos, tombstones, since, limit, reset);
+    }
+}
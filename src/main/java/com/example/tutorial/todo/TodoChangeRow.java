@@ -0,0 +1,34 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Row of the union of todo and todo_tombstone read by {@link TodoChangeMapper}; deleted rows only carry the id and
+ * the tombstone version.
+ */
+@Getter
+@Setter
+class TodoChangeRow {
+
+    private Long todoId;
+
+    private String todoTitle;
+
+    private boolean finished;
+
+    private LocalDateTime createdAt;
+
+    private long version;
+
+    private boolean deleted;
+
+    Todo toTodo() {
+        return new Todo(todoId, todoTitle, finished, createdAt, version);
+    }
+
+    TodoTombstone toTombstone() {
+        return new TodoTombstone(todoId, version);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.tutorial.todo;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Todos created or finished and ids deleted after a sync token, oldest change first. reset tells the client to
+ * discard what it has, either because it sent no token, because the token does not fit the current shards or because
+ * the tombstones it would need have been purged; the todos are then the whole table from the start and no deletions
+ * are reported until the pages catch up with where the reset started.
+ */
+@Getter
+@AllArgsConstructor
+public class TodoChanges {
+
+    private final List<Todo> todos;
+
+    private final List<Long> deletedIds;
+
+    private final TodoSyncToken next;
+
+    private final boolean hasMore;
+
+    private final boolean reset;
+
+    /**
+     * Merges changed rows after since and tombstones after its deleted version, both of one version sequence, ordered
+     * by version and read with a limit of at least limit + 1, into the first limit changes.
+     */
+    static TodoChanges merge(List<Todo> todos, List<TodoTombstone> tombstones, TodoSyncToken since, int limit,
+            boolean reset) {
+        List<Todo> changedTodos = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        long next = since.getVersions().get(0);
+        int todoIndex = 0;
+        int tombstoneIndex = 0;
+        while (todoIndex + tombstoneIndex < limit
+                && (todoIndex < todos.size() || tombstoneIndex < tombstones.size())) {
+            if (tombstoneIndex == tombstones.size() || (todoIndex < todos.size()
+                    && todos.get(todoIndex).getVersion() < tombstones.get(tombstoneIndex).getVersion())) {
+                Todo todo = todos.get(todoIndex++);
+                changedTodos.add(todo);
+                next = todo.getVersion();
+            } else {
+                TodoTombstone tombstone = tombstones.get(tombstoneIndex++);
+                deletedIds.add(tombstone.getTodoId());
+                next = tombstone.getVersion();
+            }
+        }
+        boolean hasMore = todoIndex < todos.size() || tombstoneIndex < tombstones.size();
+        return new TodoChanges(changedTodos, deletedIds, TodoSyncToken.of(next, since.getDeletedVersions().get(0)),
+                hasMore, reset);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.tutorial.todo;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Response of GET /todos/changes. A client applies deletedIds, then replaces its copies of todos, and sends next as
+ * since of the following request; hasMore means that request will return more changes right away.
+ */
+@Getter
+@AllArgsConstructor
+public class TodoChangesResource {
+
+    private final List<TodoResource> todos;
+
+    private final List<Long> deletedIds;
+
+    private final String next;
+
+    private final boolean hasMore;
+
+    // the client has to discard its todos before applying these
+    private final boolean reset;
+}
@@ -1,9 +1,17 @@
 package com.example.tutorial.todo;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,45 +20,176 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
-import com.github.dozermapper.core.Mapper;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.example.tutorial.common.exception.BadRequestException;
+import com.example.tutorial.common.exception.PreconditionFailedException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController // (1)
 @RequestMapping("todos") // (2)
+@Profile("!reactive")
 public class TodoController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BULK_SIZE = 10000;
+
+    static final String ANY_ETAG = "*";
+
     @Autowired // (3)
     TodoService todoService;
 
     @Autowired // (4)
-    Mapper beanMapper;
+    TodoResourceMapper todoResourceMapper;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    TodoCreateQueue todoCreateQueue;
+
+    @Autowired
+    TodoChangeFeed todoChangeFeed;
 
     @GetMapping
-    public List<TodoResource> getTodos() {
-        Collection<Todo> todos = todoService.findAll();
-        return todos.stream().map(todo -> beanMapper.map(todo, TodoResource.class))
-                .collect(Collectors.toList());
+    public ResponseEntity<TodoList> getTodos(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "finished", required = false) Boolean finished,
+            @RequestParam(name = "createdFrom", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(name = "createdTo", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "includeArchived", defaultValue = "false") boolean includeArchived,
+            WebRequest webRequest) {
+        TodoCriteria criteria = new TodoCriteria(finished, createdFrom, createdTo, TodoSort.parse(sort),
+                includeArchived);
+        boolean paged = limit != null || after != null;
+        int pageSize = pageSize(limit);
+        TodoCursor cursor = TodoCursor.decode(after);
+        if (!paged && criteria.isEmpty()) {
+            // the cached list carries its own version, as the database may already be ahead of it
+            TodoSnapshot snapshot = todoService.findSnapshot();
+            if (webRequest.checkNotModified(eTag(snapshot.getVersion()))) {
+                return null;
+            }
+            return ResponseEntity.ok(new TodoList(snapshot.getTodos()));
+        }
+        if (webRequest.checkNotModified(eTag(todoService.findAggregateVersion()))) {
+            return null;
+        }
+        if (!paged) {
+            return ResponseEntity.ok(new TodoList(todoService.findAll(criteria)));
+        }
+
+        TodoPage page = todoService.findPage(criteria, cursor, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNext().encode());
+        }
+        return response.body(new TodoList(page.getTodos()));
+    }
+
+    @GetMapping("search")
+    public ResponseEntity<TodoList> searchTodos(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "offset", required = false) Integer offset) {
+        if (query.isBlank()) {
+            throw new BadRequestException("The search query must not be empty.");
+        }
+        if (offset != null && offset < 0) {
+            throw new BadRequestException("The offset must not be negative.");
+        }
+        TodoSearchResult result = todoService.search(query, (offset == null) ? 0 : offset, pageSize(limit));
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(result.getTotal()))
+                .body(new TodoList(result.getTodos()));
+    }
+
+    @GetMapping(path = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTodos() {
+        ObjectWriter writer = objectMapper.writerFor(TodoResource.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = writer.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                todoService.exportAll(todo -> writeLine(writer, generator, todoResourceMapper.toResource(todo)));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("changes")
+    public TodoChangesResource getChanges(
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        TodoChanges changes = todoService.findChanges(TodoSyncToken.decode(since), pageSize(limit));
+        return new TodoChangesResource(todoResourceMapper.toResources(changes.getTodos()), changes.getDeletedIds(),
+                changes.getNext().encode(), changes.isHasMore(), changes.isReset());
+    }
+
+    @GetMapping(path = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTodos(
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return todoChangeFeed.subscribe(lastEventId);
     }
 
     @GetMapping("{todoId}")
-    public TodoResource getTodo(@PathVariable("todoId") Long todoId) {
+    public TodoResource getTodo(@PathVariable("todoId") Long todoId, WebRequest webRequest) {
         Todo todo = todoService.findOne(todoId);
-        return beanMapper.map(todo, TodoResource.class);
+        if (webRequest.checkNotModified(eTag(todo.getVersion()))) {
+            return null;
+        }
+        return todoResourceMapper.toResource(todo);
     }
 
     @PostMapping
+    public CompletableFuture<ResponseEntity<TodoResource>> postTodo(@RequestBody @Validated TodoResource todoResource) {
+        Todo todo = todoResourceMapper.toTodo(todoResource);
+        if (todoCreateQueue == null) {
+            return CompletableFuture.completedFuture(created(todoService.create(todo)));
+        }
+        return todoCreateQueue.submit(todo).thenApply(this::created);
+    }
+
+    @PostMapping("batch")
     @ResponseStatus(HttpStatus.CREATED)
-    public TodoResource postTodo(@RequestBody @Validated TodoResource todoResource) {
-        Todo createdTodo = todoService.create(beanMapper.map(todoResource, Todo.class));
-        return beanMapper.map(createdTodo, TodoResource.class);
+    public List<TodoResource> postTodos(@RequestBody @Validated TodoBatchResource todoBatchResource) {
+        List<Todo> createdTodos = todoService.createAll(todoResourceMapper.toTodos(todoBatchResource.getTodos()));
+        return todoResourceMapper.toResources(createdTodos);
     }
 
     @PutMapping("{todoId}")
-    public TodoResource putTodo(@PathVariable("todoId") Long todoId) {
-        Todo finishedTodo = todoService.finish(todoId);
-        return beanMapper.map(finishedTodo, TodoResource.class);
+    public ResponseEntity<TodoResource> putTodo(@PathVariable("todoId") Long todoId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Todo finishedTodo = (ifMatch == null || ANY_ETAG.equals(ifMatch.trim()))
+                ? todoService.finish(todoId)
+                : todoService.finish(todoId, parseVersion(todoId, ifMatch));
+        return ResponseEntity.ok().eTag(eTag(finishedTodo.getVersion()))
+                .body(todoResourceMapper.toResource(finishedTodo));
+    }
+
+    @PutMapping("finish")
+    public List<TodoBulkResult> putTodos(@RequestBody List<Long> todoIds) {
+        return todoService.finishAll(validateBulkIds(todoIds));
     }
 
     @DeleteMapping("{todoId}")
@@ -59,4 +198,56 @@ public class TodoController {
         todoService.delete(todoId);
     }
 
-}
\ No newline at end of file
+    @DeleteMapping
+    public List<TodoBulkResult> deleteTodos(@RequestBody List<Long> todoIds) {
+        return todoService.deleteAll(validateBulkIds(todoIds));
+    }
+
+    static int pageSize(Integer limit) {
+        int pageSize = (limit == null) ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException(
+                    "The limit must be between 1 and " + MAX_PAGE_SIZE + ". (limit=" + limit + ")");
+        }
+        return pageSize;
+    }
+
+    static String eTag(Object version) {
+        return (version == null) ? null : "\"" + version + "\"";
+    }
+
+    static long parseVersion(Long todoId, String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            try {
+                return Long.parseLong(value.substring(1, value.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through to the precondition failure below
+            }
+        }
+        throw new PreconditionFailedException(
+                "The If-Match header does not match the requested Todo. (id=" + todoId + ", If-Match=" + ifMatch + ")");
+    }
+
+    static List<Long> validateBulkIds(List<Long> todoIds) {
+        if (todoIds.isEmpty() || todoIds.size() > MAX_BULK_SIZE || todoIds.contains(null)) {
+            throw new BadRequestException(
+                    "The todoIds must contain between 1 and " + MAX_BULK_SIZE + " non-null ids.");
+        }
+        return todoIds;
+    }
+
+    private void writeLine(ObjectWriter writer, JsonGenerator generator, TodoResource todoResource) {
+        try {
+            writer.writeValue(generator, todoResource);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseEntity<TodoResource> created(Todo todo) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(todoResourceMapper.toResource(todo));
+    }
+
+}
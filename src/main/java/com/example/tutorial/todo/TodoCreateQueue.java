@@ -0,0 +1,157 @@
+package com.example.tutorial.todo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import com.example.tutorial.common.exception.ServiceUnavailableException;
+import lombok.AllArgsConstructor;
+
+/**
+ * Write-behind queue for {@link TodoService#create(Todo)}. A single writer thread drains up to batchSize pending todos,
+ * waiting at most maxLinger for a batch to fill, and creates them with one transaction and multi-row insert. Each
+ * caller's future completes only after its batch has committed.
+ */
+public class TodoCreateQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoCreateQueue.class);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    private final TodoService todoService;
+
+    private final TodoCreateQueueProperties properties;
+
+    private final BlockingQueue<PendingTodo> queue;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public TodoCreateQueue(TodoService todoService, TodoCreateQueueProperties properties) {
+        this.todoService = todoService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+    }
+
+    public CompletableFuture<Todo> submit(Todo todo) {
+        PendingTodo pendingTodo = new PendingTodo(todo, new CompletableFuture<>());
+        try {
+            if (!running || !queue.offer(pendingTodo, properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ServiceUnavailableException("The todo create queue is full. Please retry later.");
+            }
+            // the writer may have stopped while this was offered and would then never take it
+            if (!running && queue.remove(pendingTodo)) {
+                throw new ServiceUnavailableException("The todo create queue is stopped. Please retry later.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the todo create queue.", e);
+        }
+        return pendingTodo.future;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "todo-create-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(STOP_TIMEOUT_MILLIS);
+            if (writer.isAlive()) {
+                logger.warn("The todo create writer did not stop within {} ms, interrupting it", STOP_TIMEOUT_MILLIS);
+                writer.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // starts before and stops after the web server so that accepted requests are still written on shutdown
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<PendingTodo> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTodo first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + properties.getMaxLinger().toNanos();
+                while (batch.size() < properties.getBatchSize()) {
+                    if (queue.drainTo(batch, properties.getBatchSize() - batch.size()) > 0) {
+                        continue;
+                    }
+                    PendingTodo next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                // every further poll would throw, so the todos not yet committed are failed instead of written
+                queue.drainTo(batch);
+                ServiceUnavailableException failure =
+                        new ServiceUnavailableException("The todo create queue was interrupted. Please retry later.", e);
+                batch.forEach(pendingTodo -> pendingTodo.future.completeExceptionally(failure));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingTodo> batch) {
+        List<Todo> todos = new ArrayList<>(batch.size());
+        batch.forEach(pendingTodo -> todos.add(pendingTodo.todo));
+        List<Todo> createdTodos;
+        try {
+            createdTodos = todoService.createAvailable(todos);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to create a batch of {} todos", batch.size(), e);
+            batch.forEach(pendingTodo -> pendingTodo.future.completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (i < createdTodos.size()) {
+                batch.get(i).future.complete(createdTodos.get(i));
+            } else {
+                batch.get(i).future.completeExceptionally(TodoServiceImpl.unfinishedLimitExceeded());
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class PendingTodo {
+
+        private final Todo todo;
+
+        private final CompletableFuture<Todo> future;
+    }
+}
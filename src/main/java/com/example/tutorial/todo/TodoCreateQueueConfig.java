@@ -0,0 +1,19 @@
+package com.example.tutorial.todo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "tutorial.todo.group-commit", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(TodoCreateQueueProperties.class)
+@Profile("!reactive")
+public class TodoCreateQueueConfig {
+
+    @Bean
+    public TodoCreateQueue todoCreateQueue(TodoService todoService, TodoCreateQueueProperties properties) {
+        return new TodoCreateQueue(todoService, properties);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.tutorial.todo;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.todo.group-commit")
+public class TodoCreateQueueProperties {
+
+    private boolean enabled = false;
+
+    private int capacity = 10000;
+
+    private int batchSize = 100;
+
+    private Duration maxLinger = Duration.ofMillis(5);
+
+    private Duration offerTimeout = Duration.ofMillis(50);
+}
@@ -0,0 +1,33 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TodoCriteria {
+
+    private final Boolean finished;
+
+    private final LocalDateTime createdFrom;
+
+    private final LocalDateTime createdTo;
+
+    private final TodoSort sort;
+
+    private final boolean includeArchived;
+
+    public TodoCriteria(Boolean finished, LocalDateTime createdFrom, LocalDateTime createdTo, TodoSort sort) {
+        this(finished, createdFrom, createdTo, sort, false);
+    }
+
+    public static TodoCriteria empty() {
+        return new TodoCriteria(null, null, null, TodoSort.CREATED_AT_ASC);
+    }
+
+    public boolean isEmpty() {
+        return finished == null && createdFrom == null && createdTo == null && sort == TodoSort.CREATED_AT_ASC
+                && !includeArchived;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tutorial.todo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import com.example.tutorial.common.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TodoCursor {
+
+    private static final String SEPARATOR = ",";
+
+    private final LocalDateTime createdAt;
+
+    private final Long todoId;
+
+    public static TodoCursor of(Todo todo) {
+        return new TodoCursor(todo.getCreatedAt(), todo.getTodoId());
+    }
+
+    public static TodoCursor decode(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int index = decoded.indexOf(SEPARATOR);
+            return new TodoCursor(LocalDateTime.parse(decoded.substring(0, index)),
+                    Long.valueOf(decoded.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("The requested cursor is invalid. (after=" + value + ")", e);
+        }
+    }
+
+    public String encode() {
+        String value = createdAt + SEPARATOR + todoId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.tutorial.todo;
+
+import java.util.Collection;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Response body for todo lists. It serializes the {@link Todo} rows directly to the same JSON as a
+ * {@code List<TodoResource>} would produce, without building the intermediate resources.
+ */
+@Getter
+@AllArgsConstructor
+@JsonSerialize(using = TodoListSerializer.class)
+public class TodoList {
+
+    private final Collection<Todo> todos;
+}
@@ -0,0 +1,94 @@
+package com.example.tutorial.todo;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes each {@link Todo} field by field in {@link TodoResource} order. createdAt is formatted as
+ * {@code uuuu/MM/dd HH:mm:ss} into one char buffer reused for the whole list instead of a String per row.
+ */
+public class TodoListSerializer extends StdSerializer<TodoList> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final SerializableString TODO_ID = new SerializedString("todoId");
+
+    private static final SerializableString TODO_TITLE = new SerializedString("todoTitle");
+
+    private static final SerializableString FINISHED = new SerializedString("finished");
+
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("uuuu/MM/dd HH:mm:ss");
+
+    private static final int CREATED_AT_LENGTH = 19;
+
+    public TodoListSerializer() {
+        super(TodoList.class);
+    }
+
+    @Override
+    public void serialize(TodoList todoList, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[CREATED_AT_LENGTH];
+        generator.writeStartArray(todoList, todoList.getTodos().size());
+        for (Todo todo : todoList.getTodos()) {
+            generator.writeStartObject(todo);
+            generator.writeFieldName(TODO_ID);
+            if (todo.getTodoId() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(todo.getTodoId());
+            }
+            generator.writeFieldName(TODO_TITLE);
+            generator.writeString(todo.getTodoTitle());
+            generator.writeFieldName(FINISHED);
+            generator.writeBoolean(todo.isFinished());
+            generator.writeFieldName(CREATED_AT);
+            writeCreatedAt(generator, todo.getCreatedAt(), buffer);
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(todo.getVersion());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeCreatedAt(JsonGenerator generator, LocalDateTime createdAt, char[] buffer)
+            throws IOException {
+        if (createdAt == null) {
+            generator.writeNull();
+            return;
+        }
+        int year = createdAt.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(CREATED_AT_FORMAT.format(createdAt));
+            return;
+        }
+        writeDigits(buffer, 0, year, 4);
+        buffer[4] = '/';
+        writeDigits(buffer, 5, createdAt.getMonthValue(), 2);
+        buffer[7] = '/';
+        writeDigits(buffer, 8, createdAt.getDayOfMonth(), 2);
+        buffer[10] = ' ';
+        writeDigits(buffer, 11, createdAt.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, createdAt.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, createdAt.getSecond(), 2);
+        generator.writeString(buffer, 0, CREATED_AT_LENGTH);
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
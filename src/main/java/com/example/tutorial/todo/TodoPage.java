@@ -0,0 +1,18 @@
+package com.example.tutorial.todo;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TodoPage {
+
+    private final List<Todo> todos;
+
+    private final TodoCursor next;
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
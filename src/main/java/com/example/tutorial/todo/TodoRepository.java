@@ -1,33 +1,193 @@
 package com.example.tutorial.todo;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
 
 @Mapper // (1)
 public interface TodoRepository {
 
-    @Select("SELECT todo_id, todo_title, finished, created_at FROM todo WHERE todo_id = #{todoId}") // (2)
+    @Select("SELECT todo_id, todo_title, finished, created_at, version FROM todo WHERE todo_id = #{todoId}") // (2)
     Optional<Todo> findById(Long todoId);
 
-    @Select("SELECT todo_id, todo_title, finished, created_at FROM todo")
+    @Select("SELECT todo_id, todo_title, finished, created_at, version FROM todo")
     Collection<Todo> findAll();
 
+    @Select({"<script>",
+            "<bind name='tables' value=\"criteria.includeArchived ? {'todo', 'todo_archive'} : {'todo'}\"/>",
+            "<if test='criteria.includeArchived'>SELECT todo_id, todo_title, finished, created_at, version FROM (</if>",
+            "<foreach collection='tables' item='table' separator='UNION ALL'>",
+            "SELECT todo_id, todo_title, finished, created_at, version FROM ${table}",
+            "<where>",
+            "<if test='criteria.finished != null'>finished = #{criteria.finished}</if>",
+            "<if test='criteria.createdFrom != null'>AND created_at &gt;= #{criteria.createdFrom}</if>",
+            "<if test='criteria.createdTo != null'>AND created_at &lt; #{criteria.createdTo}</if>",
+            "<if test='after != null'>",
+            "<choose>",
+            "<when test='criteria.sort.descending'>",
+            "AND created_at &lt;= #{after.createdAt} AND (created_at &lt; #{after.createdAt} OR todo_id &lt; #{after.todoId})",
+            "</when>",
+            "<otherwise>",
+            "AND created_at &gt;= #{after.createdAt} AND (created_at &gt; #{after.createdAt} OR todo_id &gt; #{after.todoId})",
+            "</otherwise>",
+            "</choose>",
+            "</if>",
+            "</where>",
+            "</foreach>",
+            "<if test='criteria.includeArchived'>) todo</if>",
+            "<choose>",
+            "<when test='criteria.sort.descending'>ORDER BY created_at DESC, todo_id DESC</when>",
+            "<otherwise>ORDER BY created_at, todo_id</otherwise>",
+            "</choose>",
+            "<if test='limit != null'>LIMIT #{limit}</if>",
+            "</script>"})
+    List<Todo> findByCriteria(@Param("criteria") TodoCriteria criteria, @Param("after") TodoCursor after,
+            @Param("limit") Integer limit);
+
+    @Select("SELECT todo_id FROM todo WHERE finished = true AND created_at < #{createdBefore}"
+            + " ORDER BY created_at, todo_id LIMIT #{limit}")
+    List<Long> findArchivableIds(@Param("createdBefore") LocalDateTime createdBefore, @Param("limit") int limit);
+
+    @Insert({"<script>",
+            "INSERT INTO todo_archive(todo_id, todo_title, finished, created_at, version, archived_at)",
+            "SELECT todo_id, todo_title, finished, created_at, version, CURRENT_TIMESTAMP FROM todo",
+            "WHERE finished = true AND todo_id IN",
+            "<foreach collection='list' item='todoId' open='(' separator=',' close=')'>#{todoId}</foreach>",
+            "</script>"})
+    long archiveAllById(List<Long> todoIds);
+
+    @Select("SELECT todo_id, todo_title, finished, created_at, version FROM todo ORDER BY todo_id")
+    @Options(fetchSize = 1000)
+    Cursor<Todo> scanAll();
+
     @Insert("INSERT INTO todo(todo_title, finished, created_at) VALUES(#{todoTitle}, #{finished}, #{createdAt})")
-    @Options(useGeneratedKeys = true, keyProperty = "todoId")
+    @Options(useGeneratedKeys = true, keyProperty = "todoId,version", keyColumn = "todo_id,version")
     void create(Todo todo);
 
-    @Update("UPDATE todo SET finished = true WHERE todo_id = #{todoId}")
+    @Insert({"<script>",
+            "INSERT INTO todo(todo_title, finished, created_at) VALUES",
+            "<foreach collection='list' item='todo' separator=','>",
+            "(#{todo.todoTitle}, #{todo.finished}, #{todo.createdAt})",
+            "</foreach>",
+            "</script>"})
+    @Options(useGeneratedKeys = true, keyProperty = "todoId,version", keyColumn = "todo_id,version")
+    void createAll(List<Todo> todos);
+
+    @Insert("INSERT INTO todo(todo_id, todo_title, finished, created_at)"
+            + " VALUES(#{todoId}, #{todoTitle}, #{finished}, #{createdAt})")
+    @Options(useGeneratedKeys = true, keyProperty = "version", keyColumn = "version")
+    void createWithId(Todo todo);
+
+    @Insert({"<script>",
+            "INSERT INTO todo(todo_id, todo_title, finished, created_at) VALUES",
+            "<foreach collection='list' item='todo' separator=','>",
+            "(#{todo.todoId}, #{todo.todoTitle}, #{todo.finished}, #{todo.createdAt})",
+            "</foreach>",
+            "</script>"})
+    @Options(useGeneratedKeys = true, keyProperty = "version", keyColumn = "version")
+    void createAllWithId(List<Todo> todos);
+
+    @Select("SELECT NEXT VALUE FOR todo_id_seq")
+    long nextIdBlock();
+
+    @Select({"<script>",
+            "SELECT todo_id, todo_title, finished, created_at, version FROM todo WHERE todo_id IN",
+            "<foreach collection='list' item='todoId' open='(' separator=',' close=')'>#{todoId}</foreach>",
+            "</script>"})
+    List<Todo> findAllById(List<Long> todoIds);
+
+    @Select("SELECT todo_id, todo_title, finished, created_at, version FROM todo WHERE todo_id = #{todoId} FOR UPDATE")
+    Optional<Todo> findByIdForUpdate(Long todoId);
+
+    @Update("UPDATE todo SET finished = true, version = NEXT VALUE FOR todo_version_seq"
+            + " WHERE todo_id = #{todoId} AND finished = false")
     long updateById(Long todoId);
 
+    @Update("UPDATE todo SET finished = true, version = NEXT VALUE FOR todo_version_seq"
+            + " WHERE todo_id = #{todoId} AND finished = false AND version = #{version}")
+    long updateByIdAndVersion(@Param("todoId") Long todoId, @Param("version") long version);
+
     @Delete("DELETE FROM todo WHERE todo_id = #{todoId}")
     long deleteById(Long todoId);
 
+    @Select({"<script>",
+            "SELECT todo_id, todo_title, finished, created_at, version FROM todo WHERE todo_id IN",
+            "<foreach collection='list' item='todoId' open='(' separator=',' close=')'>#{todoId}</foreach>",
+            "FOR UPDATE",
+            "</script>"})
+    List<Todo> findAllByIdForUpdate(List<Long> todoIds);
+
+    @Update({"<script>",
+            "UPDATE todo SET finished = true, version = NEXT VALUE FOR todo_version_seq",
+            "WHERE finished = false AND todo_id IN",
+            "<foreach collection='list' item='todoId' open='(' separator=',' close=')'>#{todoId}</foreach>",
+            "</script>"})
+    long updateAllById(List<Long> todoIds);
+
+    @Delete({"<script>",
+            "DELETE FROM todo WHERE todo_id IN",
+            "<foreach collection='list' item='todoId' open='(' separator=',' close=')'>#{todoId}</foreach>",
+            "</script>"})
+    long deleteAllById(List<Long> todoIds);
+
+    @Insert({"<script>",
+            "MERGE INTO todo_tombstone(todo_id, version, deleted_at) KEY(todo_id) VALUES",
+            "<foreach collection='list' item='todoId' separator=','>",
+            "(#{todoId}, NEXT VALUE FOR todo_version_seq, CURRENT_TIMESTAMP)",
+            "</foreach>",
+            "</script>"})
+    void createTombstones(List<Long> todoIds);
+
+    @Select("SELECT COUNT(*) || '-' || COALESCE(MAX(version), 0) FROM todo")
+    String findAggregateVersion();
+
     @Select("SELECT COUNT(*) FROM todo WHERE finished = #{finished}")
     long countByFinished(boolean finished);
+
+    @Select("SELECT counter_value FROM todo_counter WHERE counter_name = 'unfinished'")
+    long findUnfinishedCount();
+
+    /**
+     * Locks the version row of todo_counter until the transaction ends. Transactions that take versions lock it
+     * before the first one, so versions are committed in the order they were taken and a delta sync can never pass
+     * over a version that has yet to commit.
+     */
+    @Select("SELECT counter_value FROM todo_counter WHERE counter_name = 'version' FOR UPDATE")
+    long lockVersions();
+
+    /**
+     * Locks the version rows that writes to the given todos take their versions from. There is only one here.
+     */
+    default long lockVersions(Collection<Long> todoIds) {
+        return lockVersions();
+    }
+
+    /**
+     * Locks the version rows that the given new todos will take their versions from. There is only one here.
+     */
+    default long lockVersionsForCreate(List<Todo> todos) {
+        return lockVersions();
+    }
+
+    @Select("SELECT counter_value FROM todo_counter WHERE counter_name = 'unfinished' FOR UPDATE")
+    long findUnfinishedCountForUpdate();
+
+    @Update("UPDATE todo_counter SET counter_value = counter_value + #{delta}"
+            + " WHERE counter_name = 'unfinished' AND counter_value + #{delta} <= #{max}")
+    long incrementUnfinishedCount(@Param("delta") long delta, @Param("max") long max);
+
+    @Update("UPDATE todo_counter SET counter_value = counter_value - #{delta} WHERE counter_name = 'unfinished'")
+    long decrementUnfinishedCount(long delta);
+
+    @Update("UPDATE todo_counter SET counter_value = #{count} WHERE counter_name = 'unfinished'")
+    long updateUnfinishedCount(long count);
 }
\ No newline at end of file
@@ -29,4 +29,6 @@ public class TodoResource implements Serializable {
     @JsonFormat(pattern = "uuuu/MM/dd HH:mm:ss")
     private LocalDateTime createdAt;
 
+    private long version;
+
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.tutorial.todo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TodoResourceMapper {
+
+    public TodoResource toResource(Todo todo) {
+        TodoResource todoResource = new TodoResource();
+        todoResource.setTodoId(todo.getTodoId());
+        todoResource.setTodoTitle(todo.getTodoTitle());
+        todoResource.setFinished(todo.isFinished());
+        todoResource.setCreatedAt(todo.getCreatedAt());
+        todoResource.setVersion(todo.getVersion());
+        return todoResource;
+    }
+
+    public List<TodoResource> toResources(Collection<Todo> todos) {
+        List<TodoResource> todoResources = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            todoResources.add(toResource(todo));
+        }
+        return todoResources;
+    }
+
+    public Todo toTodo(TodoResource todoResource) {
+        Todo todo = new Todo();
+        todo.setTodoId(todoResource.getTodoId());
+        todo.setTodoTitle(todoResource.getTodoTitle());
+        todo.setFinished(todoResource.isFinished());
+        todo.setCreatedAt(todoResource.getCreatedAt());
+        todo.setVersion(todoResource.getVersion());
+        return todo;
+    }
+
+    public List<Todo> toTodos(Collection<TodoResource> todoResources) {
+        List<Todo> todos = new ArrayList<>(todoResources.size());
+        for (TodoResource todoResource : todoResources) {
+            todos.add(toTodo(todoResource));
+        }
+        return todos;
+    }
+}
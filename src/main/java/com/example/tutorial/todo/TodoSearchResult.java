@@ -0,0 +1,14 @@
+package com.example.tutorial.todo;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TodoSearchResult {
+
+    private final List<Todo> todos;
+
+    private final int total;
+}
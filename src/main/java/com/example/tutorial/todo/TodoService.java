@@ -1,6 +1,9 @@
 package com.example.tutorial.todo;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface TodoService {
 
@@ -8,9 +11,58 @@ public interface TodoService {
 
     Collection<Todo> findAll();
 
+    /**
+     * Returns all todos with the aggregate version to use as their ETag. The version is read first, so the todos are
+     * at least as new as it.
+     */
+    TodoSnapshot findSnapshot();
+
+    String findAggregateVersion();
+
+    List<Todo> findAll(TodoCriteria criteria);
+
+    TodoPage findPage(TodoCriteria criteria, TodoCursor after, int limit);
+
+    void exportAll(Consumer<? super Todo> action);
+
+    /**
+     * Searches todo titles. The todos are returned best match first; total counts every match, not just this page.
+     */
+    TodoSearchResult search(String query, int offset, int limit);
+
+    /**
+     * Returns up to limit changes after since, or all todos from the start if since is null.
+     */
+    TodoChanges findChanges(TodoSyncToken since, int limit);
+
     Todo create(Todo todo);
 
+    List<Todo> createAll(List<Todo> todos);
+
+    /**
+     * Creates the leading todos that still fit under the unfinished limit in one transaction and returns them;
+     * the remaining ones are not created.
+     */
+    List<Todo> createAvailable(List<Todo> todos);
+
     Todo finish(Long todoId);
 
+    Todo finish(Long todoId, long version);
+
+    List<TodoBulkResult> finishAll(Collection<Long> todoIds);
+
     void delete(Long todoId);
+
+    List<TodoBulkResult> deleteAll(Collection<Long> todoIds);
+
+    /**
+     * Moves up to limit finished todos created before createdBefore to todo_archive in one transaction and returns
+     * how many were moved.
+     */
+    int archiveFinished(LocalDateTime createdBefore, int limit);
+
+    /**
+     * Purges the tombstones of todos deleted before deletedBefore; delta syncs that would have needed them reset.
+     */
+    long purgeTombstones(LocalDateTime deletedBefore);
 }
\ No newline at end of file
@@ -1,39 +1,145 @@
 package com.example.tutorial.todo;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.tutorial.common.exception.BusinessException;
+import com.example.tutorial.common.exception.PreconditionFailedException;
 import com.example.tutorial.common.exception.ResourceNotFoundException;
 
 @Service // (1)
 @Transactional // (2)
+@Profile("!reactive")
 public class TodoServiceImpl implements TodoService {
 
     private static final long MAX_UNFINISHED_COUNT = 5;
 
+    private static final int INSERT_CHUNK_SIZE = 100;
+
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    static final String TODO_CACHE = "todo";
+
+    static final String TODOS_CACHE = "todos";
+
     @Autowired // (3)
     TodoRepository todoRepository;
 
+    @Autowired
+    TodoTitleIndex todoTitleIndex;
+
+    @Autowired
+    TodoChangeFeed todoChangeFeed;
+
+    @Autowired
+    TodoChangeLog todoChangeLog;
+
+    @Autowired(required = false)
+    CacheManager cacheManager;
+
+    // cached entries are shared by every later request, so they are loaded in a read-write transaction, which the
+    // routing data source sends to the primary rather than to the lagging replica
     @Override
+    @Cacheable(cacheNames = TODO_CACHE, key = "#todoId")
     public Todo findOne(Long todoId) {
-        return todoRepository.findById(todoId).orElseThrow(() -> new ResourceNotFoundException(
-                "The requested Todo is not found. (id=" + todoId + ")"));
+        return todoRepository.findById(todoId).orElseThrow(() -> notFound(todoId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Todo> findAll() {
         return todoRepository.findAll();
     }
 
     @Override
+    @Cacheable(cacheNames = TODOS_CACHE, key = "'all'")
+    public TodoSnapshot findSnapshot() {
+        String version = todoRepository.findAggregateVersion();
+        return new TodoSnapshot(version, todoRepository.findAll());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String findAggregateVersion() {
+        return todoRepository.findAggregateVersion();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Todo> findAll(TodoCriteria criteria) {
+        return todoRepository.findByCriteria(criteria, null, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TodoPage findPage(TodoCriteria criteria, TodoCursor after, int limit) {
+        List<Todo> todos = todoRepository.findByCriteria(criteria, after, limit + 1);
+        if (todos.size() <= limit) {
+            return new TodoPage(todos, null);
+        }
+        List<Todo> page = new ArrayList<>(todos.subList(0, limit));
+        return new TodoPage(page, TodoCursor.of(page.get(limit - 1)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<? super Todo> action) {
+        try (Cursor<Todo> cursor = todoRepository.scanAll()) {
+            cursor.forEach(action);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TodoSearchResult search(String query, int offset, int limit) {
+        TodoTitleIndex.Hits hits = todoTitleIndex.search(query, offset, limit);
+        if (hits.getTodoIds().isEmpty()) {
+            return new TodoSearchResult(new ArrayList<>(), hits.getTotal());
+        }
+        Map<Long, Todo> todos = todoRepository.findAllById(hits.getTodoIds()).stream()
+                .collect(Collectors.toMap(Todo::getTodoId, Function.identity()));
+        List<Todo> page = hits.getTodoIds().stream()
+                .map(todos::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new TodoSearchResult(page, hits.getTotal());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TodoChanges findChanges(TodoSyncToken since, int limit) {
+        return todoChangeLog.findChanges(since, limit);
+    }
+
+    @Override
+    @Caching(put = @CachePut(cacheNames = TODO_CACHE, key = "#result.todoId"),
+            evict = @CacheEvict(cacheNames = TODOS_CACHE, allEntries = true))
     public Todo create(Todo todo) {
-        long unfinishedCount = todoRepository.countByFinished(false);
-        if (unfinishedCount >= MAX_UNFINISHED_COUNT) {
-            throw new BusinessException(
-                    "The count of un-finished Todo must not be over " + MAX_UNFINISHED_COUNT + ".");
+        todoRepository.lockVersionsForCreate(List.of(todo));
+        if (todoRepository.incrementUnfinishedCount(1, MAX_UNFINISHED_COUNT) == 0) {
+            throw unfinishedLimitExceeded();
         }
 
         LocalDateTime createdAt = LocalDateTime.now();
@@ -41,25 +147,222 @@ public class TodoServiceImpl implements TodoService {
         todo.setFinished(false);
 
         todoRepository.create(todo);
+        todoTitleIndex.addAfterCommit(List.of(todo));
+        todoChangeFeed.createdAfterCommit(List.of(todo));
         return todo;
     }
 
     @Override
+    @CacheEvict(cacheNames = TODOS_CACHE, allEntries = true)
+    public List<Todo> createAll(List<Todo> todos) {
+        todoRepository.lockVersionsForCreate(todos);
+        if (todoRepository.incrementUnfinishedCount(todos.size(), MAX_UNFINISHED_COUNT) == 0) {
+            throw unfinishedLimitExceeded();
+        }
+        insertAll(todos);
+        return todos;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = TODOS_CACHE, allEntries = true)
+    public List<Todo> createAvailable(List<Todo> todos) {
+        todoRepository.lockVersionsForCreate(todos);
+        long available = MAX_UNFINISHED_COUNT - todoRepository.findUnfinishedCountForUpdate();
+        if (available <= 0) {
+            return new ArrayList<>();
+        }
+        List<Todo> accepted = new ArrayList<>(todos.subList(0, (int) Math.min(available, todos.size())));
+        todoRepository.incrementUnfinishedCount(accepted.size(), MAX_UNFINISHED_COUNT);
+        insertAll(accepted);
+        return accepted;
+    }
+
+    @Override
+    @Caching(put = @CachePut(cacheNames = TODO_CACHE, key = "#todoId"),
+            evict = @CacheEvict(cacheNames = TODOS_CACHE, allEntries = true))
     public Todo finish(Long todoId) {
-        Todo todo = findOne(todoId);
-        if (todo.isFinished()) {
-            throw new BusinessException(
-                    "The requested Todo is already finished. (id=" + todoId + ")");
+        todoRepository.lockVersions(List.of(todoId));
+        if (todoRepository.updateById(todoId) == 0) {
+            findOne(todoId);
+            throw alreadyFinished(todoId);
         }
-        todo.setFinished(true);
-        todoRepository.updateById(todoId);
-        return todo;
+        return finished(todoId);
     }
 
     @Override
+    @Caching(put = @CachePut(cacheNames = TODO_CACHE, key = "#todoId"),
+            evict = @CacheEvict(cacheNames = TODOS_CACHE, allEntries = true))
+    public Todo finish(Long todoId, long version) {
+        todoRepository.lockVersions(List.of(todoId));
+        if (todoRepository.updateByIdAndVersion(todoId, version) == 0) {
+            Todo todo = findOne(todoId);
+            if (todo.getVersion() != version) {
+                throw new PreconditionFailedException("The requested Todo has been modified. (id=" + todoId
+                        + ", version=" + todo.getVersion() + ")");
+            }
+            throw alreadyFinished(todoId);
+        }
+        return finished(todoId);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = { TODO_CACHE, TODOS_CACHE }, allEntries = true)
+    public List<TodoBulkResult> finishAll(Collection<Long> todoIds) {
+        todoRepository.lockVersions(todoIds);
+        List<TodoBulkResult> results = new ArrayList<>(todoIds.size());
+        for (List<Long> chunk : chunk(todoIds)) {
+            Map<Long, Todo> todos = lockAll(chunk);
+            List<Long> targetIds = new ArrayList<>(chunk.size());
+            for (Long todoId : chunk) {
+                Todo todo = todos.get(todoId);
+                if (todo == null) {
+                    results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.NOT_FOUND));
+                } else if (todo.isFinished()) {
+                    results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.ALREADY_FINISHED));
+                } else {
+                    results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.DONE));
+                    targetIds.add(todoId);
+                }
+            }
+            if (!targetIds.isEmpty()) {
+                todoRepository.updateAllById(targetIds);
+                todoRepository.decrementUnfinishedCount(targetIds.size());
+                todoChangeFeed.finishedAfterCommit(todoRepository.findAllById(targetIds));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @Caching(evict = { @CacheEvict(cacheNames = TODO_CACHE, key = "#todoId"),
+            @CacheEvict(cacheNames = TODOS_CACHE, allEntries = true) })
     public void delete(Long todoId) {
-        findOne(todoId);
+        todoRepository.lockVersions(List.of(todoId));
+        Todo todo = todoRepository.findByIdForUpdate(todoId).orElseThrow(() -> notFound(todoId));
         todoRepository.deleteById(todoId);
+        todoRepository.createTombstones(List.of(todoId));
+        todoTitleIndex.removeAfterCommit(List.of(todoId));
+        todoChangeFeed.deletedAfterCommit(List.of(todoId));
+        if (!todo.isFinished()) {
+            todoRepository.decrementUnfinishedCount(1);
+        }
+    }
+
+    @Override
+    @CacheEvict(cacheNames = { TODO_CACHE, TODOS_CACHE }, allEntries = true)
+    public List<TodoBulkResult> deleteAll(Collection<Long> todoIds) {
+        todoRepository.lockVersions(todoIds);
+        List<TodoBulkResult> results = new ArrayList<>(todoIds.size());
+        for (List<Long> chunk : chunk(todoIds)) {
+            Map<Long, Todo> todos = lockAll(chunk);
+            long unfinishedCount = 0;
+            for (Long todoId : chunk) {
+                Todo todo = todos.get(todoId);
+                if (todo == null) {
+                    results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.NOT_FOUND));
+                } else {
+                    results.add(new TodoBulkResult(todoId, TodoBulkResult.Status.DONE));
+                    unfinishedCount += todo.isFinished() ? 0 : 1;
+                }
+            }
+            if (!todos.isEmpty()) {
+                List<Long> deletedIds = new ArrayList<>(todos.keySet());
+                todoRepository.deleteAllById(deletedIds);
+                todoRepository.createTombstones(deletedIds);
+                todoTitleIndex.removeAfterCommit(deletedIds);
+                todoChangeFeed.deletedAfterCommit(deletedIds);
+            }
+            if (unfinishedCount > 0) {
+                todoRepository.decrementUnfinishedCount(unfinishedCount);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = TODOS_CACHE, allEntries = true)
+    public int archiveFinished(LocalDateTime createdBefore, int limit) {
+        List<Long> candidateIds = todoRepository.findArchivableIds(createdBefore, limit);
+        if (candidateIds.isEmpty()) {
+            return 0;
+        }
+        todoRepository.lockVersions(candidateIds);
+        // locked first so that a todo deleted concurrently is not archived as well
+        List<Long> archivedIds = lockAll(candidateIds).values().stream()
+                .filter(Todo::isFinished)
+                .map(Todo::getTodoId)
+                .collect(Collectors.toList());
+        if (archivedIds.isEmpty()) {
+            return 0;
+        }
+        todoRepository.archiveAllById(archivedIds);
+        todoRepository.deleteAllById(archivedIds);
+        todoRepository.createTombstones(archivedIds);
+        todoTitleIndex.removeAfterCommit(archivedIds);
+        todoChangeFeed.archivedAfterCommit(archivedIds);
+        evictTodos(archivedIds);
+        return archivedIds.size();
+    }
+
+    @Override
+    public long purgeTombstones(LocalDateTime deletedBefore) {
+        return todoChangeLog.purgeTombstones(deletedBefore);
+    }
+
+    static BusinessException unfinishedLimitExceeded() {
+        return new BusinessException("The count of un-finished Todo must not be over " + MAX_UNFINISHED_COUNT + ".");
+    }
+
+    private void insertAll(List<Todo> todos) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (Todo todo : todos) {
+            todo.setCreatedAt(createdAt);
+            todo.setFinished(false);
+        }
+
+        for (int from = 0; from < todos.size(); from += INSERT_CHUNK_SIZE) {
+            todoRepository.createAll(todos.subList(from, Math.min(from + INSERT_CHUNK_SIZE, todos.size())));
+        }
+        todoTitleIndex.addAfterCommit(todos);
+        todoChangeFeed.createdAfterCommit(todos);
+    }
+
+    // the archived ids are only known once the batch is locked, so they cannot be named in a @CacheEvict key; the
+    // transaction aware cache defers these evictions to the commit like the annotated ones
+    private void evictTodos(List<Long> todoIds) {
+        Cache cache = (cacheManager == null) ? null : cacheManager.getCache(TODO_CACHE);
+        if (cache != null) {
+            todoIds.forEach(cache::evict);
+        }
+    }
+
+    private List<List<Long>> chunk(Collection<Long> todoIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(todoIds));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += BULK_CHUNK_SIZE) {
+            chunks.add(distinctIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinctIds.size())));
+        }
+        return chunks;
+    }
+
+    private Map<Long, Todo> lockAll(List<Long> todoIds) {
+        return todoRepository.findAllByIdForUpdate(todoIds).stream()
+                .collect(Collectors.toMap(Todo::getTodoId, Function.identity()));
+    }
+
+    private Todo finished(Long todoId) {
+        todoRepository.decrementUnfinishedCount(1);
+        Todo todo = findOne(todoId);
+        todoChangeFeed.finishedAfterCommit(List.of(todo));
+        return todo;
+    }
+
+    private BusinessException alreadyFinished(Long todoId) {
+        return new BusinessException("The requested Todo is already finished. (id=" + todoId + ")");
+    }
+
+    private ResourceNotFoundException notFound(Long todoId) {
+        return new ResourceNotFoundException("The requested Todo is not found. (id=" + todoId + ")");
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.tutorial.todo;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.PostConstruct;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every {@link TodoService} call and counts its failures by exception type. It runs outside the cache
+ * and transaction advice, so the recorded latency includes cache hits and the commit. The meters are registered
+ * once per method and exception type.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Profile("!reactive")
+public class TodoServiceMetrics {
+
+    static final String TIMER_NAME = "todo.service";
+
+    static final String FAILURE_COUNTER_NAME = "todo.service.failures";
+
+    static final String UNFINISHED_GAUGE_NAME = "todo.unfinished";
+
+    private static final String NONE = "none";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    TodoRepository todoRepository;
+
+    private final ConcurrentMap<String, MethodMeters> methodMeters = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.example.tutorial.todo.TodoService.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMeters meters = methodMeters.computeIfAbsent(joinPoint.getSignature().getName(), MethodMeters::new);
+        Timer timer = meters.timer;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            Failure failure = meters.failure(e.getClass());
+            failure.counter.increment();
+            timer = failure.timer;
+            throw e;
+        } finally {
+            sample.stop(timer);
+        }
+    }
+
+    @PostConstruct
+    void registerUnfinishedGauge() {
+        Gauge.builder(UNFINISHED_GAUGE_NAME, todoRepository, TodoRepository::findUnfinishedCount)
+                .description("Number of unfinished todos")
+                .register(meterRegistry);
+    }
+
+    private Timer timer(String method, String exception) {
+        return Timer.builder(TIMER_NAME)
+                .description("TodoService call latency")
+                .tag("method", method)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private class MethodMeters {
+
+        private final String method;
+
+        private final Timer timer;
+
+        private final ConcurrentMap<Class<?>, Failure> failures = new ConcurrentHashMap<>();
+
+        MethodMeters(String method) {
+            this.method = method;
+            this.timer = timer(method, NONE);
+        }
+
+        Failure failure(Class<?> exceptionType) {
+            return failures.computeIfAbsent(exceptionType, type -> new Failure(method, type.getSimpleName()));
+        }
+    }
+
+    private class Failure {
+
+        private final Timer timer;
+
+        private final Counter counter;
+
+        Failure(String method, String exception) {
+            this.timer = timer(method, exception);
+            this.counter = Counter.builder(FAILURE_COUNTER_NAME)
+                    .description("TodoService calls that ended with an exception")
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry);
+        }
+    }
+}
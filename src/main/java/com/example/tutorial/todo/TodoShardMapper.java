@@ -0,0 +1,29 @@
+package com.example.tutorial.todo;
+
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * Statements {@link ShardedTodoRepository} runs against one shard when it starts, to bring rows written before the
+ * current shard layout in line with it.
+ */
+@Mapper
+interface TodoShardMapper {
+
+    /**
+     * The highest id ever handed out on this shard, including archived and deleted todos.
+     */
+    @Select("SELECT GREATEST(COALESCE((SELECT MAX(todo_id) FROM todo), 0),"
+            + " COALESCE((SELECT MAX(todo_id) FROM todo_archive), 0),"
+            + " COALESCE((SELECT MAX(todo_id) FROM todo_tombstone), 0))")
+    long findMaxTodoId();
+
+    @Select("SELECT todo_id FROM todo")
+    List<Long> findAllIds();
+
+    @Update("ALTER SEQUENCE todo_id_seq RESTART WITH ${value}")
+    void restartIdSequence(@Param("value") long value);
+}
@@ -0,0 +1,45 @@
+package com.example.tutorial.todo;
+
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.mybatis.spring.boot.autoconfigure.MybatisProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import com.example.tutorial.common.datasource.ShardTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "tutorial.todo.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(TodoShardingProperties.class)
+@Profile("!reactive")
+public class TodoShardingConfig {
+
+    @Bean
+    TodoShards todoShards(DataSource dataSource, TodoShardingProperties properties,
+            MybatisProperties mybatisProperties, ObjectProvider<Interceptor> interceptors) throws Exception {
+        return new TodoShards(dataSource, properties.getShards(),
+                mybatisProperties.getConfiguration() != null
+                        && mybatisProperties.getConfiguration().isMapUnderscoreToCamelCase(),
+                interceptors.orderedStream().collect(Collectors.toList()));
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(TodoShards todoShards) {
+        return new ShardTransactionManager(todoShards.getTransactionManagers());
+    }
+
+    @Bean
+    @Primary
+    public ShardedTodoRepository shardedTodoRepository(TodoShards todoShards, TodoShardingProperties properties,
+            MeterRegistry meterRegistry) {
+        return new ShardedTodoRepository(todoShards.getRepositories(), todoShards.getChangeMappers(),
+                todoShards.getShardMappers(), properties, meterRegistry);
+    }
+}
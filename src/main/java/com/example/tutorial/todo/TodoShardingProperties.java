@@ -0,0 +1,25 @@
+package com.example.tutorial.todo;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.todo.sharding")
+public class TodoShardingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Shards 1..N-1. Shard 0 is the spring.datasource database.
+     */
+    private List<DataSourceProperties> shards = new ArrayList<>();
+
+    private int fanOutThreads = 8;
+
+    private int fanOutQueueCapacity = 1000;
+}
@@ -0,0 +1,78 @@
+package com.example.tutorial.todo;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+/**
+ * One data source, TodoRepository, TodoChangeMapper and TodoShardMapper mapper and transaction manager per shard.
+ * Shard 0 reuses the application's data source; the other shards get their own pool and are initialized with
+ * schema.sql.
+ */
+@Getter
+class TodoShards implements DisposableBean {
+
+    private final List<DataSource> dataSources = new ArrayList<>();
+
+    private final List<TodoRepository> repositories = new ArrayList<>();
+
+    private final List<TodoChangeMapper> changeMappers = new ArrayList<>();
+
+    private final List<TodoShardMapper> shardMappers = new ArrayList<>();
+
+    private final List<PlatformTransactionManager> transactionManagers = new ArrayList<>();
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    TodoShards(DataSource dataSource, List<DataSourceProperties> shardProperties, boolean mapUnderscoreToCamelCase,
+            List<Interceptor> interceptors) throws Exception {
+        add(dataSource, mapUnderscoreToCamelCase, interceptors);
+        for (DataSourceProperties properties : shardProperties) {
+            properties.afterPropertiesSet();
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            pool.setPoolName("todo-shard-" + dataSources.size());
+            pools.add(pool);
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(pool);
+            add(pool, mapUnderscoreToCamelCase, interceptors);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private void add(DataSource target, boolean mapUnderscoreToCamelCase, List<Interceptor> interceptors) {
+        // the mapper and the transaction manager have to share this instance for MyBatis to join the transaction
+        DataSource dataSource = new LazyConnectionDataSourceProxy(target);
+        Configuration configuration = new Configuration(
+                new Environment("shard-" + dataSources.size(), new SpringManagedTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(mapUnderscoreToCamelCase);
+        interceptors.forEach(configuration::addInterceptor);
+        configuration.addMapper(TodoRepository.class);
+        configuration.addMapper(TodoChangeMapper.class);
+        configuration.addMapper(TodoShardMapper.class);
+        SqlSessionTemplate sqlSession = new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration));
+
+        dataSources.add(dataSource);
+        repositories.add(sqlSession.getMapper(TodoRepository.class));
+        changeMappers.add(sqlSession.getMapper(TodoChangeMapper.class));
+        shardMappers.add(sqlSession.getMapper(TodoShardMapper.class));
+        transactionManagers.add(new DataSourceTransactionManager(dataSource));
+    }
+}
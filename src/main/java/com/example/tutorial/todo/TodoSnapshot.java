@@ -0,0 +1,18 @@
+package com.example.tutorial.todo;
+
+import java.util.Collection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * All todos together with the aggregate version they were read at, cached as one entry so that the ETag of a list
+ * is never newer than its body.
+ */
+@Getter
+@AllArgsConstructor
+public class TodoSnapshot {
+
+    private final String version;
+
+    private final Collection<Todo> todos;
+}
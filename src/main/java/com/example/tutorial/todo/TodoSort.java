@@ -0,0 +1,30 @@
+package com.example.tutorial.todo;
+
+import com.example.tutorial.common.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum TodoSort {
+
+    CREATED_AT_ASC("createdAt", false),
+
+    CREATED_AT_DESC("-createdAt", true);
+
+    private final String value;
+
+    private final boolean descending;
+
+    public static TodoSort parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return CREATED_AT_ASC;
+        }
+        for (TodoSort sort : values()) {
+            if (sort.value.equals(value)) {
+                return sort;
+            }
+        }
+        throw new BadRequestException("The requested sort is not supported. (sort=" + value + ")");
+    }
+}
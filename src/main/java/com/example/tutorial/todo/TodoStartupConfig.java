@@ -0,0 +1,24 @@
+package com.example.tutorial.todo;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Keeps the beans that serve /todos eager when spring.main.lazy-initialization is on (see the fast-startup profile),
+ * so that lazy initialization only defers what a todo request does not need. schema.sql has to run before
+ * TodoTitleIndex loads its index at startup, so the script initializer stays eager too.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+public class TodoStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter todoHotPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(TodoController.class, TodoService.class,
+                TodoRepository.class, TodoResourceMapper.class, TodoTitleIndex.class,
+                AbstractScriptDatabaseInitializer.class);
+    }
+}
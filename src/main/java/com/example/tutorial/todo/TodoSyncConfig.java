@@ -0,0 +1,17 @@
+package com.example.tutorial.todo;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TodoSyncProperties.class)
+@Profile("!reactive")
+public class TodoSyncConfig {
+
+    @Bean
+    public TodoTombstonePurger todoTombstonePurger(TodoService todoService, TodoSyncProperties properties) {
+        return new TodoTombstonePurger(todoService, properties);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.tutorial.todo;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("tutorial.todo.sync")
+public class TodoSyncProperties {
+
+    // tombstones of todos deleted longer ago than this are purged; older sync tokens get a reset
+    private Duration tombstoneRetention = Duration.ofDays(30);
+
+    private Duration purgeInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,80 @@
+package com.example.tutorial.todo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import com.example.tutorial.common.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Position of a delta sync, one entry per shard since each shard has its own version sequence: the last version a
+ * client has seen, and the version up to which it needs no tombstones. The latter is ahead of the former while a
+ * reset is paged through, as the deletions from before the reset started do not concern the client.
+ */
+@Getter
+@AllArgsConstructor
+public class TodoSyncToken {
+
+    private static final String SEPARATOR = ".";
+
+    private static final String FLOOR_SEPARATOR = "~";
+
+    private final List<Long> versions;
+
+    private final List<Long> deletedVersions;
+
+    public TodoSyncToken(List<Long> versions) {
+        this(versions, versions);
+    }
+
+    public static TodoSyncToken of(long version) {
+        return of(version, version);
+    }
+
+    public static TodoSyncToken of(long version, long deletedVersion) {
+        return new TodoSyncToken(List.of(version), List.of(Math.max(version, deletedVersion)));
+    }
+
+    public static TodoSyncToken decode(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            List<Long> versions = new ArrayList<>();
+            List<Long> deletedVersions = new ArrayList<>();
+            for (String position : decoded.split("\\" + SEPARATOR, -1)) {
+                int index = position.indexOf(FLOOR_SEPARATOR);
+                long version = Long.parseLong(index < 0 ? position : position.substring(0, index));
+                versions.add(version);
+                deletedVersions.add(index < 0 ? version : Math.max(version, Long.parseLong(position.substring(index + 1))));
+            }
+            return new TodoSyncToken(versions, deletedVersions);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("The requested sync token is invalid. (since=" + value + ")", e);
+        }
+    }
+
+    /**
+     * The position of one shard.
+     */
+    public TodoSyncToken shard(int shard) {
+        return of(versions.get(shard), deletedVersions.get(shard));
+    }
+
+    public String encode() {
+        StringBuilder value = new StringBuilder();
+        for (int shard = 0; shard < versions.size(); shard++) {
+            if (shard > 0) {
+                value.append(SEPARATOR);
+            }
+            value.append(versions.get(shard));
+            if (deletedVersions.get(shard) > versions.get(shard)) {
+                value.append(FLOOR_SEPARATOR).append(deletedVersions.get(shard));
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.tutorial.todo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * In-memory inverted index over todoTitle, loaded from the table at startup. Titles are NFKC-normalized, lower-cased
+ * and split into letter/digit tokens. Every token is indexed whole (exact and prefix matches) and as character bigrams
+ * (substring matches, including inside Japanese text that has no spaces). Postings are int slot arrays that only grow
+ * at the end, so they stay sorted and are intersected by merging. Removed todos leave holes that are compacted once
+ * they outnumber the live entries.
+ */
+@Component
+@Profile("!reactive")
+public class TodoTitleIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoTitleIndex.class);
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int EXACT = 3;
+
+    private static final int PREFIX = 2;
+
+    private static final int SUBSTRING = 1;
+
+    private static final int MIN_COMPACTION = 1024;
+
+    @Autowired
+    TodoRepository todoRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+
+    private final NavigableMap<String, Postings> tokens = new TreeMap<>();
+
+    private final Map<String, Postings> bigrams = new HashMap<>();
+
+    private long[] todoIds = new long[MIN_COMPACTION];
+
+    private String[][] titleTokens = new String[MIN_COMPACTION][];
+
+    private int slotCount;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Cursor<Todo> cursor = todoRepository.scanAll()) {
+                cursor.forEach(this::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        logger.info("Indexed {} todo titles in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adds the todos once the current transaction commits, or right away outside of a transaction.
+     */
+    public void addAfterCommit(Collection<Todo> todos) {
+        afterCommit(() -> todos.forEach(this::add));
+    }
+
+    public void removeAfterCommit(Collection<Long> todoIds) {
+        afterCommit(() -> todoIds.forEach(this::remove));
+    }
+
+    public void add(Todo todo) {
+        String[] terms = tokenize(todo.getTodoTitle()).toArray(new String[0]);
+        lock.writeLock().lock();
+        try {
+            removeSlot(todo.getTodoId());
+            if (slotCount == todoIds.length) {
+                todoIds = Arrays.copyOf(todoIds, slotCount * 2);
+                titleTokens = Arrays.copyOf(titleTokens, slotCount * 2);
+            }
+            int slot = slotCount++;
+            todoIds[slot] = todo.getTodoId();
+            titleTokens[slot] = terms;
+            slots.put(todo.getTodoId(), slot);
+            index(slot, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long todoId) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(todoId);
+            if (slotCount - slots.size() > Math.max(MIN_COMPACTION, slots.size())) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the todos whose title matches every term of the query, best matches first. A term scores 3 for
+     * a whole token, 2 for a token prefix and 1 for any other substring; equal scores are ordered newest id first.
+     */
+    public Hits search(String query, int offset, int limit) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            int[] candidates = null;
+            for (String term : terms) {
+                int[] termCandidates = candidates(term);
+                if (candidates == null) {
+                    candidates = termCandidates;
+                } else if (candidates.length <= termCandidates.length) {
+                    candidates = intersect(candidates, candidates.length, termCandidates, termCandidates.length);
+                } else {
+                    candidates = intersect(termCandidates, termCandidates.length, candidates, candidates.length);
+                }
+                if (candidates.length == 0) {
+                    return new Hits(List.of(), 0);
+                }
+            }
+
+            int top = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+            PriorityQueue<Long> ranked = new PriorityQueue<>(Math.min(top, candidates.length) + 1);
+            int total = 0;
+            for (int slot : candidates) {
+                int score = score(terms, titleTokens[slot]);
+                if (score == 0) {
+                    continue;
+                }
+                total++;
+                // score in the high byte, id below it, so that a larger key is a better hit
+                ranked.add(((long) Math.min(score, Byte.MAX_VALUE) << 56) | todoIds[slot]);
+                if (ranked.size() > top) {
+                    ranked.poll();
+                }
+            }
+
+            List<Long> ordered = new ArrayList<>(ranked);
+            ordered.sort(Comparator.reverseOrder());
+            List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, ordered.size() - offset)));
+            for (int i = offset; i < ordered.size(); i++) {
+                page.add(ordered.get(i) & ((1L << 56) - 1));
+            }
+            return new Hits(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        for (String term : SEPARATOR.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void removeSlot(Long todoId) {
+        Integer slot = slots.remove(todoId);
+        if (slot != null) {
+            titleTokens[slot] = null;
+        }
+    }
+
+    private void index(int slot, String[] terms) {
+        Set<String> termBigrams = new LinkedHashSet<>();
+        for (String term : terms) {
+            tokens.computeIfAbsent(term, key -> new Postings()).add(slot);
+            for (int i = 0; i + 2 <= term.length(); i++) {
+                termBigrams.add(term.substring(i, i + 2));
+            }
+        }
+        for (String bigram : termBigrams) {
+            bigrams.computeIfAbsent(bigram, key -> new Postings()).add(slot);
+        }
+    }
+
+    private void compact() {
+        long[] liveIds = new long[Math.max(MIN_COMPACTION, slots.size() * 2)];
+        String[][] liveTokens = new String[liveIds.length][];
+        int liveCount = 0;
+        tokens.clear();
+        bigrams.clear();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (titleTokens[slot] != null) {
+                liveIds[liveCount] = todoIds[slot];
+                liveTokens[liveCount] = titleTokens[slot];
+                slots.put(todoIds[slot], liveCount);
+                index(liveCount, titleTokens[slot]);
+                liveCount++;
+            }
+        }
+        todoIds = liveIds;
+        titleTokens = liveTokens;
+        slotCount = liveCount;
+    }
+
+    private int[] candidates(String term) {
+        if (term.length() < 2) {
+            // too short for a bigram, so only token prefixes can match
+            Collection<Postings> postings = tokens.subMap(term, true, term + Character.MAX_VALUE, true).values();
+            return postings.stream().flatMapToInt(Postings::stream).sorted().distinct().toArray();
+        }
+        List<Postings> postings = new ArrayList<>();
+        for (int i = 0; i + 2 <= term.length(); i++) {
+            Postings bigramPostings = bigrams.get(term.substring(i, i + 2));
+            if (bigramPostings == null) {
+                return new int[0];
+            }
+            postings.add(bigramPostings);
+        }
+        postings.sort(Comparator.comparingInt(Postings::size));
+        int[] candidates = postings.get(0).toArray();
+        for (int i = 1; i < postings.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, candidates.length, postings.get(i).slots, postings.get(i).size);
+        }
+        return candidates;
+    }
+
+    private static int score(Set<String> terms, String[] titleTerms) {
+        if (titleTerms == null) {
+            return 0;
+        }
+        int score = 0;
+        for (String term : terms) {
+            int termScore = 0;
+            for (String titleTerm : titleTerms) {
+                if (titleTerm.equals(term)) {
+                    termScore = EXACT;
+                    break;
+                } else if (titleTerm.startsWith(term)) {
+                    termScore = Math.max(termScore, PREFIX);
+                } else if (termScore == 0 && titleTerm.contains(term)) {
+                    termScore = SUBSTRING;
+                }
+            }
+            if (termScore == 0) {
+                return 0;
+            }
+            score += termScore;
+        }
+        return score;
+    }
+
+    // left is expected to be the shorter list; right is searched by galloping so that a rare term stays cheap
+    // even against the postings of a bigram that almost every title contains
+    private static int[] intersect(int[] left, int leftSize, int[] right, int rightSize) {
+        int[] result = new int[Math.min(leftSize, rightSize)];
+        int count = 0;
+        int from = 0;
+        for (int i = 0; i < leftSize && from < rightSize; i++) {
+            int bound = 1;
+            while (from + bound < rightSize && right[from + bound] < left[i]) {
+                bound <<= 1;
+            }
+            int found = Arrays.binarySearch(right, from, Math.min(from + bound + 1, rightSize), left[i]);
+            if (found >= 0) {
+                result[count++] = left[i];
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hits {
+
+        private final List<Long> todoIds;
+
+        private final int total;
+    }
+
+    private static class Postings {
+
+        private int[] slots = new int[4];
+
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(slots, size);
+        }
+
+        IntStream stream() {
+            return Arrays.stream(slots, 0, size);
+        }
+    }
+}
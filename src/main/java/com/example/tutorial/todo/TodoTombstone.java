@@ -0,0 +1,28 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Row of todo_tombstone: a deleted todo and the version at which it was deleted, from the same sequence as
+ * todo.version. deletedAt decides when the tombstone is purged.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoTombstone {
+
+    private Long todoId;
+
+    private long version;
+
+    private LocalDateTime deletedAt;
+
+    public TodoTombstone(Long todoId, long version) {
+        this(todoId, version, null);
+    }
+}
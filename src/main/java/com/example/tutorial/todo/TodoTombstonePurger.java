@@ -0,0 +1,73 @@
+package com.example.tutorial.todo;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Purges the tombstones of todos deleted more than tombstoneRetention ago every purgeInterval, so that todo_tombstone
+ * only grows with the deletions of the retention period. A delta sync whose token is older than what was purged
+ * resets instead of missing the deletions.
+ */
+public class TodoTombstonePurger implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoTombstonePurger.class);
+
+    private final TodoService todoService;
+
+    private final TodoSyncProperties properties;
+
+    private ScheduledExecutorService scheduler;
+
+    public TodoTombstonePurger(TodoService todoService, TodoSyncProperties properties) {
+        this.todoService = todoService;
+        this.properties = properties;
+    }
+
+    /**
+     * Purges the tombstones that are due now and returns how many were removed.
+     */
+    public long purge() {
+        return todoService.purgeTombstones(LocalDateTime.now().minus(properties.getTombstoneRetention()));
+    }
+
+    @Override
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("todo-tombstone-purger-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        long interval = properties.getPurgeInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null && !scheduler.isShutdown();
+    }
+
+    private void run() {
+        try {
+            long purged = purge();
+            if (purged > 0) {
+                logger.info("Purged {} tombstones", purged);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to purge tombstones", e);
+        }
+    }
+}
@@ -1,6 +1,50 @@
+CREATE SEQUENCE IF NOT EXISTS todo_version_seq;
+
+CREATE SEQUENCE IF NOT EXISTS todo_id_seq INCREMENT BY 100;
+
 CREATE TABLE IF NOT EXISTS TODO (
   todo_id BIGINT IDENTITY PRIMARY KEY,
   todo_title VARCHAR(30),
   finished BOOLEAN,
-  created_at TIMESTAMP
-);
\ No newline at end of file
+  created_at TIMESTAMP,
+  version BIGINT DEFAULT NEXT VALUE FOR todo_version_seq NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_todo_created_at ON todo (created_at, todo_id);
+
+CREATE INDEX IF NOT EXISTS idx_todo_finished_created_at ON todo (finished, created_at, todo_id);
+
+CREATE INDEX IF NOT EXISTS idx_todo_version ON todo (version);
+
+CREATE TABLE IF NOT EXISTS todo_tombstone (
+  todo_id BIGINT PRIMARY KEY,
+  version BIGINT NOT NULL,
+  deleted_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_todo_tombstone_version ON todo_tombstone (version);
+
+CREATE TABLE IF NOT EXISTS todo_archive (
+  todo_id BIGINT PRIMARY KEY,
+  todo_title VARCHAR(30),
+  finished BOOLEAN,
+  created_at TIMESTAMP,
+  version BIGINT NOT NULL,
+  archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_todo_archive_created_at ON todo_archive (created_at, todo_id);
+
+CREATE TABLE IF NOT EXISTS todo_counter (
+  counter_name VARCHAR(30) PRIMARY KEY,
+  counter_value BIGINT NOT NULL
+);
+
+MERGE INTO todo_counter (counter_name, counter_value) KEY (counter_name)
+  SELECT 'unfinished', COUNT(*) FROM todo WHERE finished = false;
+
+MERGE INTO todo_counter (counter_name, counter_value) KEY (counter_name) VALUES ('version', 0);
+
+INSERT INTO todo_counter (counter_name, counter_value)
+  SELECT 'tombstone_horizon', 0 FROM DUAL
+  WHERE NOT EXISTS (SELECT 1 FROM todo_counter WHERE counter_name = 'tombstone_horizon');
@@ -0,0 +1,90 @@
+package com.example.tutorial.common.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import javax.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AdmissionControlFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdmissionControlFilter admissionControlFilter;
+
+    @BeforeEach
+    void setup() {
+        AdmissionControlProperties properties = new AdmissionControlProperties();
+        properties.setRetryAfter(Duration.ofSeconds(3));
+        properties.getRead().setInitialLimit(1);
+        properties.getRead().setMinLimit(1);
+        properties.getWrite().setInitialLimit(1);
+        properties.getWrite().setMinLimit(1);
+        admissionControlFilter = new AdmissionControlFilter(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("上限を超えた要求がRetry-After付きの503で即座に拒否されることを確認する(AdmissionControl)")
+    void testRejected() throws Exception {
+        // setup
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        FilterChain chain = (request, response) -> admissionControlFilter.doFilter(
+                new MockHttpServletRequest("GET", "/todos/1"), rejectedResponse, (innerRequest, innerResponse) -> {
+                });
+
+        // run
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        admissionControlFilter.doFilter(new MockHttpServletRequest("GET", "/todos"), response, chain);
+
+        // check
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(rejectedResponse.getStatus()).isEqualTo(503);
+        assertThat(rejectedResponse.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(meterRegistry.get(AdmissionControlFilter.REJECTED_COUNTER_NAME).tag("type", "read").counter()
+                .count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(AdmissionControlFilter.IN_FLIGHT_GAUGE_NAME).tag("type", "read").gauge()
+                .value()).isZero();
+    }
+
+    @Test
+    @DisplayName("読み取りと書き込みが別々の上限で受け付けられることを確認する(AdmissionControl)")
+    void testSeparateLimits() throws Exception {
+        // setup
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        FilterChain chain = (request, response) -> admissionControlFilter.doFilter(
+                new MockHttpServletRequest("POST", "/todos"), writeResponse, (innerRequest, innerResponse) -> {
+                });
+
+        // run
+        admissionControlFilter.doFilter(new MockHttpServletRequest("GET", "/todos"), new MockHttpServletResponse(),
+                chain);
+
+        // check
+        assertThat(writeResponse.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get(AdmissionControlFilter.REJECTED_COUNTER_NAME).tag("type", "write").counter()
+                .count()).isZero();
+    }
+
+    @Test
+    @DisplayName("除外したパスは上限の対象外であることを確認する(AdmissionControl)")
+    void testExcludedPath() throws Exception {
+        // setup
+        MockHttpServletResponse exportResponse = new MockHttpServletResponse();
+        FilterChain chain = (request, response) -> admissionControlFilter.doFilter(
+                new MockHttpServletRequest("GET", "/todos/export"), exportResponse, (innerRequest, innerResponse) -> {
+                });
+
+        // run
+        admissionControlFilter.doFilter(new MockHttpServletRequest("GET", "/todos"), new MockHttpServletResponse(),
+                chain);
+
+        // check
+        assertThat(exportResponse.getStatus()).isEqualTo(200);
+    }
+}
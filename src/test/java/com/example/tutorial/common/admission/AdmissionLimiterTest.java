@@ -0,0 +1,99 @@
+package com.example.tutorial.common.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import com.example.tutorial.common.admission.AdmissionControlProperties.Limit;
+
+public class AdmissionLimiterTest {
+
+    @Test
+    @DisplayName("上限まで受け付けた後は待たずに拒否されることを確認する(AdmissionLimiter)")
+    void testLimit() {
+        // setup
+        AdmissionLimiter limiter = new AdmissionLimiter(limit(2, Duration.ofMinutes(1)));
+
+        // run
+        AdmissionLimiter.Permit permit1 = limiter.tryAcquire();
+        AdmissionLimiter.Permit permit2 = limiter.tryAcquire();
+        AdmissionLimiter.Permit permit3 = limiter.tryAcquire();
+        limiter.release(permit1, false);
+        AdmissionLimiter.Permit permit4 = limiter.tryAcquire();
+
+        // check
+        assertThat(permit1).isNotNull();
+        assertThat(permit2).isNotNull();
+        assertThat(permit3).isNull();
+        assertThat(permit4).isNotNull();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("上限まで使われて速く完了すると上限が加算で増えることを確認する(AdmissionLimiter)")
+    void testAdditiveIncrease() {
+        // setup
+        AdmissionLimiter limiter = new AdmissionLimiter(limit(4, Duration.ofMinutes(1)));
+
+        // run
+        for (int i = 0; i < 20; i++) {
+            AdmissionLimiter.Permit[] permits = new AdmissionLimiter.Permit[limiter.getLimit()];
+            for (int j = 0; j < permits.length; j++) {
+                permits[j] = limiter.tryAcquire();
+            }
+            for (AdmissionLimiter.Permit permit : permits) {
+                limiter.release(permit, false);
+            }
+        }
+
+        // check
+        assertThat(limiter.getLimit()).isBetween(10, 24);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("使われていない上限は増えないことを確認する(AdmissionLimiter)")
+    void testNoIncreaseWhenIdle() {
+        // setup
+        AdmissionLimiter limiter = new AdmissionLimiter(limit(4, Duration.ofMinutes(1)));
+
+        // run
+        for (int i = 0; i < 100; i++) {
+            limiter.release(limiter.tryAcquire(), false);
+        }
+
+        // check
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("同時に遅延した要求では上限が1回だけ乗算で減り、下限を下回らないことを確認する(AdmissionLimiter)")
+    void testMultiplicativeDecrease() {
+        // setup
+        AdmissionLimiter limiter = new AdmissionLimiter(limit(10, Duration.ZERO));
+
+        // run
+        AdmissionLimiter.Permit permit1 = limiter.tryAcquire();
+        AdmissionLimiter.Permit permit2 = limiter.tryAcquire();
+        limiter.release(permit1, false);
+        limiter.release(permit2, false);
+        int limitAfterRound = limiter.getLimit();
+        for (int i = 0; i < 100; i++) {
+            limiter.release(limiter.tryAcquire(), true);
+        }
+
+        // check
+        assertThat(limitAfterRound).isEqualTo(5);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    private static Limit limit(int initialLimit, Duration latencyThreshold) {
+        Limit limit = new Limit();
+        limit.setInitialLimit(initialLimit);
+        limit.setMinLimit(2);
+        limit.setMaxLimit(100);
+        limit.setLatencyThreshold(latencyThreshold);
+        limit.setBackoffRatio(0.5);
+        return limit;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.tutorial.common.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private static final DataSource PRIMARY = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+
+    private static final DataSource REPLICA = new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+
+    private static final DataSource UNAVAILABLE = new DriverManagerDataSource("jdbc:h2:mem:unavailable;IFEXISTS=TRUE");
+
+    private ReadWriteRoutingProperties properties = new ReadWriteRoutingProperties();
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("読み取り専用トランザクションはレプリカ、それ以外はプライマリに振り分けられることを確認する(Routing)")
+    void testRouting() {
+        // setup
+        DataSource dataSource = routingDataSource(REPLICA);
+
+        // run & check
+        assertThat(databaseName(dataSource, true)).isEqualTo("REPLICA");
+        assertThat(databaseName(dataSource, false)).isEqualTo("PRIMARY");
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    @DisplayName("資格情報を指定した接続も同じように振り分けられることを確認する(Routing)")
+    void testRoutingWithCredentials() {
+        // setup
+        DataSource dataSource = new ReadWriteRoutingDataSource(PRIMARY, REPLICA, properties);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+
+        // run
+        String readOnlyName = transactionTemplate.execute(status -> databaseName(dataSource, "", ""));
+        String name = databaseName(dataSource, "", "");
+
+        // check
+        assertThat(readOnlyName).isEqualTo("REPLICA");
+        assertThat(name).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    @DisplayName("レプリカに接続できない場合はプライマリから読み取ることを確認する(Routing)")
+    void testFallbackToPrimary() {
+        // setup
+        DataSource dataSource = routingDataSource(UNAVAILABLE);
+
+        // run & check
+        assertThat(databaseName(dataSource, true)).isEqualTo("PRIMARY");
+        assertThat(databaseName(dataSource, true)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    @DisplayName("同じリクエスト内で書き込んだ後の読み取りはプライマリに振り分けられることを確認する(Routing)")
+    void testReadYourWrites() {
+        // setup
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        DataSource dataSource = routingDataSource(REPLICA);
+
+        // run & check
+        assertThat(databaseName(dataSource, true)).isEqualTo("REPLICA");
+        assertThat(databaseName(dataSource, false)).isEqualTo("PRIMARY");
+        assertThat(databaseName(dataSource, true)).isEqualTo("PRIMARY");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(databaseName(dataSource, true)).isEqualTo("REPLICA");
+    }
+
+    @Test
+    @DisplayName("read-your-writesを無効にすると書き込み後もレプリカから読み取ることを確認する(Routing)")
+    void testReadYourWritesDisabled() {
+        // setup
+        properties.setReadYourWrites(false);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        DataSource dataSource = routingDataSource(REPLICA);
+
+        // run & check
+        assertThat(databaseName(dataSource, false)).isEqualTo("PRIMARY");
+        assertThat(databaseName(dataSource, true)).isEqualTo("REPLICA");
+    }
+
+    private DataSource routingDataSource(DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(PRIMARY, replica, properties));
+    }
+
+    private static String databaseName(DataSource dataSource, String username, String password) {
+        try (Connection connection = dataSource.getConnection(username, password);
+                ResultSet resultSet = connection.createStatement().executeQuery("SELECT DATABASE()")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String databaseName(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(
+                status -> new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.tutorial.common.mybatis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import com.example.tutorial.todo.TodoRepository;
+
+@MybatisTest
+@Import(StatementProfilerConfig.class)
+@TestPropertySource(properties = "tutorial.mybatis.profiler.slow-threshold=0ms")
+public class StatementProfilerTest {
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private StatementProfiler statementProfiler;
+
+    @BeforeEach
+    void reset() {
+        statementProfiler.reset();
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Mapperのステートメント毎に実行回数・件数・fetchSizeが記録されることを確認する(Profiler)")
+    void testStatistics() {
+        // run
+        todoRepository.findAll();
+        todoRepository.findAll();
+        todoRepository.updateAllById(List.of(1L, 3L));
+        todoRepository.scanAll();
+
+        // check
+        StatementStats findAll = statementProfiler.getStatistics().get("TodoRepository.findAll");
+        assertThat(findAll.getCount()).isEqualTo(2L);
+        assertThat(findAll.getRows()).isEqualTo(6L);
+        assertThat(findAll.getSlowCount()).isEqualTo(2L);
+        assertThat(findAll.getMaxMillis()).isPositive();
+        assertThat(statementProfiler.getStatistics().get("TodoRepository.updateAllById").getRows()).isEqualTo(2L);
+        assertThat(statementProfiler.getStatistics().get("TodoRepository.scanAll").getFetchSize()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("1リクエスト内で同じパラメータの同じステートメントが繰り返された場合に検出されることを確認する(Profiler)")
+    void testRepeatedInRequest() {
+        // setup
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // run
+        todoRepository.findById(1L);
+        todoRepository.findById(3L);
+        todoRepository.findById(1L);
+
+        // check
+        StatementStats findById = statementProfiler.getStatistics().get("TodoRepository.findById");
+        assertThat(findById.getCount()).isEqualTo(3L);
+        assertThat(findById.getRepeatedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("リクエスト外で実行されたステートメントは繰り返しとして検出されないことを確認する(Profiler)")
+    void testNotRepeatedOutsideRequest() {
+        // run
+        todoRepository.findById(1L);
+        todoRepository.findById(1L);
+
+        // check
+        assertThat(statementProfiler.getStatistics().get("TodoRepository.findById").getRepeatedCount()).isEqualTo(0L);
+    }
+}
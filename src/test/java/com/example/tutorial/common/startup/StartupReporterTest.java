@@ -0,0 +1,75 @@
+package com.example.tutorial.common.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+
+public class StartupReporterTest {
+
+    private StartupReportProperties properties;
+
+    private StartupReporter startupReporter;
+
+    @BeforeEach
+    void setup() {
+        properties = new StartupReportProperties();
+        startupReporter = new StartupReporter(properties);
+    }
+
+    @Test
+    @DisplayName("トップレベルのステップだけがフェーズとして集計されることを確認する(StartupReporter)")
+    void testPhases() throws InterruptedException {
+        // setup
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(100);
+        StartupStep prepared = applicationStartup.start("spring.boot.application.environment-prepared");
+        prepared.end();
+        StartupStep refresh = applicationStartup.start("spring.context.refresh");
+        StartupStep bean = bean(applicationStartup, "todoService");
+        Thread.sleep(20);
+        bean.end();
+        refresh.end();
+
+        // run
+        Map<String, Long> phases = startupReporter.phases(applicationStartup.getBufferedTimeline());
+
+        // check
+        assertThat(phases).containsOnlyKeys("spring.boot.application.environment-prepared", "spring.context.refresh");
+        assertThat(phases.get("spring.context.refresh")).isGreaterThanOrEqualTo(20L);
+    }
+
+    @Test
+    @DisplayName("Beanの生成時間から依存Beanの生成時間が除かれ、遅い順に上位件数だけ返されることを確認する(StartupReporter)")
+    void testSlowestBeans() throws InterruptedException {
+        // setup
+        properties.setTopBeans(2);
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(100);
+        StartupStep controller = bean(applicationStartup, "todoController");
+        StartupStep service = bean(applicationStartup, "todoService");
+        StartupStep repository = bean(applicationStartup, "todoRepository");
+        Thread.sleep(50);
+        repository.end();
+        Thread.sleep(20);
+        service.end();
+        controller.end();
+        StartupTimeline timeline = applicationStartup.getBufferedTimeline();
+
+        // run
+        List<String> slowestBeans = startupReporter.slowestBeans(timeline);
+
+        // check
+        assertThat(slowestBeans).hasSize(2);
+        assertThat(slowestBeans.get(0)).startsWith("todoRepository=");
+        assertThat(slowestBeans.get(1)).startsWith("todoService=");
+        assertThat(Long.parseLong(slowestBeans.get(1).substring("todoService=".length()))).isLessThan(50L);
+    }
+
+    private static StartupStep bean(BufferingApplicationStartup applicationStartup, String beanName) {
+        return applicationStartup.start("spring.beans.instantiate").tag("beanName", beanName);
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class InMemoryTodoRepositoryTest {
+
+    private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("uuuu/MM/dd HH:mm:ss");
+
+    private InMemoryTodoRepository todoRepository;
+
+    // same rows as data.sql
+    @BeforeEach
+    void setUp() {
+        todoRepository = new InMemoryTodoRepository();
+        todoRepository.createAllWithId(List.of(
+                new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT)),
+                new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT)),
+                new Todo(3L, "sample todo 3", false, LocalDateTime.parse("2019/09/19 03:03:03", DATETIME_FORMAT))));
+        todoRepository.updateUnfinishedCount(todoRepository.countByFinished(false));
+    }
+
+    @Test
+    @DisplayName("全Todoが取得でき、カーソルでID順に読み出せることを確認する(InMemory)")
+    void testFindAllAndScanAll() throws IOException {
+        // run
+        Collection<Todo> actualTodos = todoRepository.findAll();
+        List<Todo> scannedTodos = new ArrayList<>();
+        try (Cursor<Todo> cursor = todoRepository.scanAll()) {
+            cursor.forEach(scannedTodos::add);
+        }
+
+        // check
+        assertThat(actualTodos)
+            .extracting(Todo::getTodoId, Todo::getTodoTitle, Todo::isFinished, Todo::getCreatedAt)
+            .containsExactly(tuple(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT)),
+                    tuple(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT)),
+                    tuple(3L, "sample todo 3", false, LocalDateTime.parse("2019/09/19 03:03:03", DATETIME_FORMAT)));
+        assertThat(scannedTodos).extracting(Todo::getTodoId).containsExactly(1L, 2L, 3L);
+        assertThat(todoRepository.findById(1L)).get().extracting(Todo::getTodoTitle).isEqualTo("sample todo 1");
+        assertThat(todoRepository.findById(99L)).isEmpty();
+        assertThat(todoRepository.findAllById(List.of(3L, 1L, 99L))).extracting(Todo::getTodoId)
+            .containsExactly(3L, 1L);
+    }
+
+    @Test
+    @DisplayName("作成日時順のkeyset paginationと完了状態・作成日時の絞り込みができることを確認する(InMemory)")
+    void testFindByCriteria() {
+        // setup
+        TodoCriteria criteria = new TodoCriteria(false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT),
+                LocalDateTime.parse("2019/09/19 03:03:04", DATETIME_FORMAT), TodoSort.CREATED_AT_DESC);
+
+        // run
+        List<Todo> firstPage = todoRepository.findByCriteria(TodoCriteria.empty(), null, 2);
+        List<Todo> secondPage = todoRepository.findByCriteria(TodoCriteria.empty(), TodoCursor.of(firstPage.get(1)), 2);
+        List<Todo> filteredTodos = todoRepository.findByCriteria(criteria, null, null);
+        List<Todo> filteredFirstPage = todoRepository.findByCriteria(criteria, null, 1);
+        List<Todo> filteredSecondPage = todoRepository.findByCriteria(criteria, TodoCursor.of(filteredFirstPage.get(0)), 1);
+
+        // check
+        assertThat(firstPage).extracting(Todo::getTodoId).containsExactly(1L, 2L);
+        assertThat(secondPage).extracting(Todo::getTodoId).containsExactly(3L);
+        assertThat(filteredTodos).extracting(Todo::getTodoId).containsExactly(3L, 1L);
+        assertThat(filteredFirstPage).extracting(Todo::getTodoId).containsExactly(3L);
+        assertThat(filteredSecondPage).extracting(Todo::getTodoId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("作成時に採番されたIDとversionが設定され、重複IDや長すぎるタイトルは拒否されることを確認する(InMemory)")
+    void testCreate() {
+        // setup
+        LocalDateTime createdAt = LocalDateTime.parse("2019/09/19 04:04:04", DATETIME_FORMAT).withNano(123_456_789);
+        Todo todo = new Todo(null, "sample todo 4", false, createdAt);
+        List<Todo> todos = List.of(new Todo(null, "sample todo 5", false, createdAt),
+                new Todo(null, "sample todo 6", false, createdAt));
+
+        // run
+        todoRepository.create(todo);
+        todoRepository.createAll(todos);
+
+        // check
+        assertThat(todo.getTodoId()).isEqualTo(4L);
+        assertThat(todo.getVersion()).isPositive();
+        assertThat(todos).extracting(Todo::getTodoId).containsExactly(5L, 6L);
+        assertThat(todoRepository.findById(4L).get())
+            .extracting(Todo::getTodoTitle, Todo::getCreatedAt, Todo::getVersion)
+            .containsExactly("sample todo 4", createdAt.withNano(123_456_000), todo.getVersion());
+        assertThatThrownBy(() -> todoRepository.createWithId(new Todo(1L, "duplicate", false, createdAt)))
+            .isInstanceOf(DuplicateKeyException.class);
+        assertThatThrownBy(() -> todoRepository.createAll(List.of(new Todo(null, "sample todo 7", false, createdAt),
+                new Todo(null, "a title that is longer than thirty characters", false, createdAt))))
+            .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(todoRepository.findAll()).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("完了・削除のたびに件数と集約バージョンが変わることを確認する(InMemory)")
+    void testUpdateAndDelete() {
+        // setup
+        String initialVersion = todoRepository.findAggregateVersion();
+        long version = todoRepository.findById(1L).get().getVersion();
+
+        // run & check
+        assertThat(todoRepository.updateByIdAndVersion(1L, version + 100)).isEqualTo(0L);
+        assertThat(todoRepository.updateByIdAndVersion(1L, version)).isEqualTo(1L);
+        assertThat(todoRepository.updateById(1L)).isEqualTo(0L);
+        assertThat(todoRepository.findById(1L).get().getVersion()).isGreaterThan(version);
+        String updatedVersion = todoRepository.findAggregateVersion();
+        assertThat(updatedVersion).isNotEqualTo(initialVersion);
+
+        assertThat(todoRepository.updateAllById(List.of(1L, 2L, 3L))).isEqualTo(1L);
+        assertThat(todoRepository.countByFinished(false)).isEqualTo(0L);
+        assertThat(todoRepository.countByFinished(true)).isEqualTo(3L);
+
+        assertThat(todoRepository.deleteAllById(List.of(1L, 3L, 99L))).isEqualTo(2L);
+        assertThat(todoRepository.deleteById(1L)).isEqualTo(0L);
+        assertThat(todoRepository.findAll()).extracting(Todo::getTodoId).containsExactly(2L);
+        assertThat(todoRepository.countByFinished(true)).isEqualTo(1L);
+        assertThat(todoRepository.findAggregateVersion()).isNotIn(initialVersion, updatedVersion);
+    }
+
+    @Test
+    @DisplayName("未完了件数のカウンタが上限を超えない範囲でのみ加算・減算されることを確認する(InMemory)")
+    void testUnfinishedCount() {
+        // run
+        long incremented = todoRepository.incrementUnfinishedCount(3, 5);
+        long overLimit = todoRepository.incrementUnfinishedCount(1, 5);
+        long decremented = todoRepository.decrementUnfinishedCount(1);
+
+        // check
+        assertThat(incremented).isEqualTo(1L);
+        assertThat(overLimit).isEqualTo(0L);
+        assertThat(decremented).isEqualTo(1L);
+        assertThat(todoRepository.findUnfinishedCount()).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("ロールバックしたトランザクション内の作成・完了・削除・カウンタ更新が取り消されることを確認する(InMemory)")
+    void testRollback() {
+        // setup
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new InMemoryTransactionManager());
+
+        // run
+        transactionTemplate.executeWithoutResult(status -> {
+            todoRepository.incrementUnfinishedCount(1, 5);
+            todoRepository.create(new Todo(null, "sample todo 4", false, LocalDateTime.now()));
+            todoRepository.updateById(1L);
+            todoRepository.deleteById(2L);
+            status.setRollbackOnly();
+        });
+
+        // check
+        assertThat(todoRepository.findAll()).extracting(Todo::getTodoId, Todo::isFinished)
+            .containsExactly(tuple(1L, false), tuple(2L, true), tuple(3L, false));
+        assertThat(todoRepository.countByFinished(true)).isEqualTo(1L);
+        assertThat(todoRepository.findUnfinishedCount()).isEqualTo(2L);
+        assertThat(todoRepository.findAggregateVersion()).startsWith("3-");
+    }
+
+    @Test
+    @DisplayName("大量の作成・削除の後もIDで引けて作成日時順が保たれることを確認する(InMemory)")
+    void testManyTodos() {
+        // setup
+        LocalDateTime createdAt = LocalDateTime.parse("2019/09/20 00:00:00", DATETIME_FORMAT);
+        List<Todo> todos = LongStream.range(0, 5000)
+            .mapToObj(i -> new Todo(null, "todo " + (i % 10), i % 2 == 0, createdAt.plusSeconds(i % 100)))
+            .collect(Collectors.toList());
+        todoRepository.createAll(todos);
+
+        // run
+        todoRepository.deleteAllById(todos.stream()
+            .map(Todo::getTodoId)
+            .filter(todoId -> todoId % 3 != 0)
+            .collect(Collectors.toList()));
+        todoRepository.create(new Todo(null, "todo 0", false, createdAt));
+
+        // check
+        List<Todo> remaining = todoRepository.findByCriteria(new TodoCriteria(null, createdAt, null,
+                TodoSort.CREATED_AT_ASC), null, null);
+        assertThat(remaining).hasSize(1667)
+            .isSortedAccordingTo((left, right) -> left.getCreatedAt().equals(right.getCreatedAt())
+                    ? left.getTodoId().compareTo(right.getTodoId()) : left.getCreatedAt().compareTo(right.getCreatedAt()));
+        assertThat(remaining).allMatch(todo -> todoRepository.findById(todo.getTodoId()).isPresent());
+        assertThat(todoRepository.findById(4L)).isEmpty();
+        assertThat(todoRepository.countByFinished(false) + todoRepository.countByFinished(true)).isEqualTo(1670L);
+    }
+
+    @Test
+    @DisplayName("トークン以降の変更と削除が取得でき、ロールバックした削除は残らないことを確認する(InMemory)")
+    void testFindChanges() {
+        // setup
+        TodoChanges initial = todoRepository.findChanges(null, 100);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new InMemoryTransactionManager());
+        transactionTemplate.executeWithoutResult(status -> {
+            todoRepository.deleteById(2L);
+            todoRepository.createTombstones(List.of(2L));
+            status.setRollbackOnly();
+        });
+        todoRepository.updateById(1L);
+        todoRepository.deleteById(3L);
+        todoRepository.createTombstones(List.of(3L));
+
+        // run
+        TodoChanges firstPage = todoRepository.findChanges(initial.getNext(), 1);
+        TodoChanges secondPage = todoRepository.findChanges(firstPage.getNext(), 1);
+
+        // check
+        assertThat(initial.getTodos()).extracting(Todo::getTodoId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(firstPage.getTodos()).extracting(Todo::getTodoId, Todo::isFinished).containsExactly(tuple(1L, true));
+        assertThat(firstPage.isHasMore()).isTrue();
+        assertThat(secondPage.getTodos()).isEmpty();
+        assertThat(secondPage.getDeletedIds()).containsExactly(3L);
+        assertThat(secondPage.isHasMore()).isFalse();
+        assertThat(todoRepository.findChanges(initial.getNext(), 10).getDeletedIds()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("保持期間を過ぎた削除履歴が消され、それを必要とするトークンではリセットされることを確認する(InMemory)")
+    void testPurgeTombstones() {
+        // setup
+        TodoChanges initial = todoRepository.findChanges(null, 100);
+        todoRepository.deleteById(3L);
+        todoRepository.createTombstones(List.of(3L));
+        TodoChanges afterFirstDelete = todoRepository.findChanges(initial.getNext(), 100);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new InMemoryTransactionManager());
+        transactionTemplate.executeWithoutResult(status -> {
+            todoRepository.purgeTombstones(LocalDateTime.now().plusSeconds(1));
+            status.setRollbackOnly();
+        });
+        TodoChanges afterRollback = todoRepository.findChanges(initial.getNext(), 100);
+
+        // run
+        long purgedCount = todoRepository.purgeTombstones(LocalDateTime.now().plusSeconds(1));
+        todoRepository.deleteById(2L);
+        todoRepository.createTombstones(List.of(2L));
+        TodoChanges stale = todoRepository.findChanges(initial.getNext(), 1);
+        TodoChanges staleRest = todoRepository.findChanges(stale.getNext(), 100);
+        TodoChanges current = todoRepository.findChanges(afterFirstDelete.getNext(), 100);
+
+        // check
+        assertThat(afterRollback.isReset()).isFalse();
+        assertThat(afterRollback.getDeletedIds()).containsExactly(3L);
+        assertThat(purgedCount).isEqualTo(1);
+        assertThat(stale.isReset()).isTrue();
+        assertThat(stale.getTodos()).extracting(Todo::getTodoId).containsExactly(1L);
+        assertThat(stale.getDeletedIds()).isEmpty();
+        assertThat(staleRest.isReset()).isFalse();
+        assertThat(staleRest.getTodos()).isEmpty();
+        assertThat(staleRest.getDeletedIds()).isEmpty();
+        assertThat(current.isReset()).isFalse();
+        assertThat(current.getDeletedIds()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("完了済の古いTodoがアーカイブに移され、ロールバックすると元に戻ることを確認する(InMemory)")
+    void testArchive() {
+        // setup
+        LocalDateTime createdBefore = LocalDateTime.parse("2019/09/19 03:00:00", DATETIME_FORMAT);
+        TodoCriteria criteria = new TodoCriteria(null, null, null, TodoSort.CREATED_AT_DESC, true);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new InMemoryTransactionManager());
+        todoRepository.updateById(1L);
+        transactionTemplate.executeWithoutResult(status -> {
+            todoRepository.archiveAllById(List.of(1L));
+            todoRepository.deleteAllById(List.of(1L));
+            status.setRollbackOnly();
+        });
+
+        // run
+        List<Long> archivableIds = todoRepository.findArchivableIds(createdBefore, 10);
+        long archivedCount = todoRepository.archiveAllById(List.of(2L, 3L));
+        todoRepository.deleteAllById(List.of(2L));
+        List<Todo> liveTodos = todoRepository.findByCriteria(TodoCriteria.empty(), null, null);
+        List<Todo> firstPage = todoRepository.findByCriteria(criteria, null, 2);
+        List<Todo> secondPage = todoRepository.findByCriteria(criteria, TodoCursor.of(firstPage.get(1)), 2);
+
+        // check
+        assertThat(archivableIds).containsExactly(1L, 2L);
+        assertThat(archivedCount).isEqualTo(1);
+        assertThat(liveTodos).extracting(Todo::getTodoId).containsExactly(1L, 3L);
+        assertThat(firstPage).extracting(Todo::getTodoId).containsExactly(3L, 2L);
+        assertThat(secondPage).extracting(Todo::getTodoId, Todo::isFinished).containsExactly(tuple(1L, true));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("memory")
+@DirtiesContext
+public class InMemoryTodoServiceTest {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @AfterEach
+    void cleanUp() {
+        List<Long> todoIds = todoService.findAll(TodoCriteria.empty()).stream()
+                .map(Todo::getTodoId)
+                .collect(Collectors.toList());
+        todoService.deleteAll(todoIds);
+    }
+
+    @Test
+    @DisplayName("memoryプロファイルではH2を使わずに作成・完了・ページング・検索ができることを確認する(InMemory)")
+    void testServiceWithoutDatabase() {
+        // run
+        List<Todo> todos = todoService.createAll(newTodos(3));
+        todoService.finish(todos.get(0).getTodoId());
+        TodoPage page = todoService.findPage(TodoCriteria.empty(), null, 2);
+        TodoSearchResult searchResult = todoService.search("todo 2", 0, 10);
+
+        // check
+        assertThat(applicationContext.getBeanNamesForType(DataSource.class)).isEmpty();
+        assertThat(todoRepository).isInstanceOf(InMemoryTodoRepository.class);
+        assertThat(page.getTodos()).extracting(Todo::getTodoId)
+                .containsExactly(todos.get(0).getTodoId(), todos.get(1).getTodoId());
+        assertThat(page.getNext()).isNotNull();
+        assertThat(searchResult.getTodos()).extracting(Todo::getTodoId).first().isEqualTo(todos.get(2).getTodoId());
+        assertThat(todoRepository.findUnfinishedCount()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("createAllが失敗した場合に未完了件数のカウンタが元に戻ることを確認する(InMemory)")
+    void testRollback() {
+        // setup
+        List<Todo> todos = newTodos(5);
+        todos.get(4).setTodoTitle("a title that is longer than thirty characters");
+
+        // run
+        assertThatThrownBy(() -> todoService.createAll(todos)).isInstanceOf(DataIntegrityViolationException.class);
+
+        // check
+        assertThat(todoService.findAll()).isEmpty();
+        assertThat(todoRepository.findUnfinishedCount()).isZero();
+    }
+
+    private static List<Todo> newTodos(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Todo(null, "todo " + i, false, null))
+                .collect(Collectors.toList());
+    }
+}
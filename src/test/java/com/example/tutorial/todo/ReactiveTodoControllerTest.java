@@ -0,0 +1,176 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivetest",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivetest" })
+@ActiveProfiles("reactive")
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public class ReactiveTodoControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("GET Todosが全Todoを返し、ETagが一致する場合は304となることを確認する(Reactive)")
+    void testGetTodos() {
+        // run
+        List<TodoResource> actualTodos = webTestClient.get().uri("/todos").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TodoResource.class).returnResult().getResponseBody();
+        String eTag = webTestClient.get().uri("/todos").exchange()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        // check
+        assertThat(actualTodos).extracting(TodoResource::getTodoId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        webTestClient.get().uri("/todos").ifNoneMatch(eTag).exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("GET Todosの絞り込み・並び替え・ページ指定が動作することを確認する(Reactive)")
+    void testGetTodosFilteredPage() {
+        // run
+        String nextCursor = webTestClient.get().uri("/todos?finished=false&sort=-createdAt&limit=1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].todoId").isEqualTo(3)
+                .returnResult().getResponseHeaders().getFirst(TodoController.NEXT_CURSOR_HEADER);
+
+        // check
+        webTestClient.get().uri("/todos?finished=false&sort=-createdAt&limit=1&after=" + nextCursor).exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(TodoController.NEXT_CURSOR_HEADER)
+                .expectBody().jsonPath("$[*].todoId").isEqualTo(1);
+        webTestClient.get().uri("/todos?sort=title").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("GET Todoが存在しない場合は404となり、存在する場合はETagが一致すれば304となることを確認する(Reactive)")
+    void testGetTodo() {
+        // run
+        String eTag = webTestClient.get().uri("/todos/1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.todoTitle").isEqualTo("sample todo 1")
+                .returnResult().getResponseHeaders().getETag();
+
+        // check
+        webTestClient.get().uri("/todos/1").ifNoneMatch(eTag).exchange()
+                .expectStatus().isNotModified();
+        webTestClient.get().uri("/todos/99").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("GET Todos/exportがNDJSONで全Todoを返すことを確認する(Reactive)")
+    void testExportTodos() {
+        // run
+        List<TodoResource> actualTodos = webTestClient.get().uri("/todos/export").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(TodoResource.class).returnResult().getResponseBody();
+
+        // check
+        assertThat(actualTodos).extracting(TodoResource::getTodoId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("POST Todoで未完了のTodoが上限を超える場合は409となることを確認する(Reactive)")
+    void testPostTodoOverLimit() {
+        // setup
+        Map<String, String> todoResource = Map.of("todoTitle", "reactive todo");
+
+        // run
+        for (int i = 0; i < 3; i++) {
+            webTestClient.post().uri("/todos").bodyValue(todoResource).exchange()
+                    .expectStatus().isCreated()
+                    .expectBody().jsonPath("$.todoId").isNotEmpty().jsonPath("$.finished").isEqualTo(false);
+        }
+
+        // check
+        webTestClient.post().uri("/todos").bodyValue(todoResource).exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        webTestClient.post().uri("/todos").bodyValue(Map.of("todoTitle", "")).exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("PUT Todoが完了済・version不一致・一致の各場合に409・412・200となることを確認する(Reactive)")
+    void testPutTodo() {
+        // setup
+        String eTag = webTestClient.get().uri("/todos/1").exchange()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        // run & check
+        webTestClient.put().uri("/todos/2").exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        webTestClient.put().uri("/todos/1").header(HttpHeaders.IF_MATCH, "\"0\"").exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        String finishedETag = webTestClient.put().uri("/todos/1").header(HttpHeaders.IF_MATCH, eTag).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.finished").isEqualTo(true)
+                .returnResult().getResponseHeaders().getETag();
+        assertThat(finishedETag).isNotEqualTo(eTag);
+        webTestClient.put().uri("/todos/99").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("DELETE Todoで削除したTodoが取得できなくなることを確認する(Reactive)")
+    void testDeleteTodo() {
+        // run
+        webTestClient.delete().uri("/todos/1").exchange()
+                .expectStatus().isNoContent();
+
+        // check
+        webTestClient.get().uri("/todos/1").exchange()
+                .expectStatus().isNotFound();
+        webTestClient.delete().uri("/todos/1").exchange()
+                .expectStatus().isNotFound();
+        webTestClient.post().uri("/todos/batch")
+                .bodyValue(List.of(Map.of("todoTitle", "a"), Map.of("todoTitle", "b"), Map.of("todoTitle", "c"),
+                        Map.of("todoTitle", "d")))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.length()").isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("まとめてfinish・deleteした結果がID毎に返されることを確認する(Reactive)")
+    void testBulkFinishAndDelete() {
+        // run & check
+        webTestClient.put().uri("/todos/finish").bodyValue(List.of(1L, 2L, 99L)).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("DONE")
+                .jsonPath("$[1].status").isEqualTo("ALREADY_FINISHED")
+                .jsonPath("$[2].status").isEqualTo("NOT_FOUND");
+        webTestClient.method(HttpMethod.DELETE).uri("/todos").bodyValue(List.of(1L, 3L, 99L)).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("DONE")
+                .jsonPath("$[1].status").isEqualTo("DONE")
+                .jsonPath("$[2].status").isEqualTo("NOT_FOUND");
+        webTestClient.post().uri("/todos/batch")
+                .bodyValue(List.of(Map.of("todoTitle", "a"), Map.of("todoTitle", "b"), Map.of("todoTitle", "c"),
+                        Map.of("todoTitle", "d"), Map.of("todoTitle", "e"), Map.of("todoTitle", "f")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+}
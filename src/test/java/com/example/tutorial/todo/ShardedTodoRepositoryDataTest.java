@@ -0,0 +1,55 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(properties = {
+        "tutorial.todo.sharding.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:datashard0;DB_CLOSE_DELAY=-1",
+        "tutorial.todo.sharding.shards[0].url=jdbc:h2:mem:datashard1;DB_CLOSE_DELAY=-1",
+        "tutorial.todo.sharding.shards[0].username=sa",
+        "tutorial.todo.sharding.shards[1].url=jdbc:h2:mem:datashard2;DB_CLOSE_DELAY=-1",
+        "tutorial.todo.sharding.shards[1].username=sa"})
+@DirtiesContext
+public class ShardedTodoRepositoryDataTest {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ShardedTodoRepository todoRepository;
+
+    @Autowired
+    private TodoShards todoShards;
+
+    @Test
+    @DisplayName("シャーディング前にshard 0へ登録されたTodoが起動時に移され、IDが重複しないことを確認する(Sharding)")
+    void testExistingTodosOnShardZero() {
+        // run
+        Todo created = todoService.create(new Todo(null, "new todo", false, LocalDateTime.now()));
+
+        // check
+        List<DataSource> dataSources = todoShards.getDataSources();
+        for (long todoId = 1; todoId <= 3; todoId++) {
+            for (int shard = 0; shard < dataSources.size(); shard++) {
+                assertThat(new JdbcTemplate(dataSources.get(shard)).queryForObject(
+                        "SELECT COUNT(*) FROM todo WHERE todo_id = ?", Long.class, todoId))
+                        .isEqualTo(shard == todoRepository.shardOf(todoId) ? 1L : 0L);
+            }
+        }
+        assertThat(todoService.findOne(1L).getTodoTitle()).isEqualTo("sample todo 1");
+        assertThat(todoService.findOne(2L).getTodoTitle()).isEqualTo("sample todo 2");
+        assertThat(todoService.findOne(3L).getTodoTitle()).isEqualTo("sample todo 3");
+        assertThat(created.getTodoId()).isGreaterThan(3L);
+        assertThat(todoService.findAll()).hasSize(4);
+        assertThat(todoRepository.findUnfinishedCount()).isEqualTo(3L);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest(properties = {
+        "tutorial.todo.sharding.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "spring.datasource.data=",
+        "tutorial.todo.sharding.shards[0].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "tutorial.todo.sharding.shards[0].username=sa",
+        "tutorial.todo.sharding.shards[1].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+        "tutorial.todo.sharding.shards[1].username=sa"})
+@DirtiesContext
+public class ShardedTodoRepositoryTest {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoShards todoShards;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        List<Long> todoIds = todoService.findAll(TodoCriteria.empty()).stream()
+                .map(Todo::getTodoId)
+                .collect(Collectors.toList());
+        todoService.deleteAll(todoIds);
+    }
+
+    @Test
+    @DisplayName("作成したTodoが一意なIDで全シャードに分散され、fan-outで全件取得できることを確認する(Sharding)")
+    void testCreateAndFanOut() {
+        // run
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            List<Todo> created = todoService.createAll(newTodos(5));
+            todos.addAll(created);
+            if (i < 2) {
+                todoService.finishAll(created.stream().map(Todo::getTodoId).collect(Collectors.toList()));
+            }
+        }
+
+        // check
+        assertThat(todos).extracting(Todo::getTodoId).doesNotHaveDuplicates().doesNotContainNull();
+        List<DataSource> dataSources = todoShards.getDataSources();
+        for (Todo todo : todos) {
+            assertThat(new JdbcTemplate(dataSources.get(shardOf(todo.getTodoId()))).queryForObject(
+                    "SELECT todo_title FROM todo WHERE todo_id = ?", String.class, todo.getTodoId()))
+                    .isEqualTo(todo.getTodoTitle());
+        }
+        assertThat(dataSources).hasSize(3).allMatch(dataSource -> count(dataSource) > 0);
+
+        assertThat(todoService.findAll()).hasSize(15);
+        assertThat(todoRepository.countByFinished(false)).isEqualTo(5L);
+        assertThat(todoRepository.countByFinished(true)).isEqualTo(10L);
+        assertThat(todoRepository.findUnfinishedCount()).isEqualTo(5L);
+        assertThat(todoService.findOne(todos.get(12).getTodoId()).getTodoTitle()).isEqualTo("todo 2");
+        assertThat(meterRegistry.find(ShardedTodoRepository.TIMER_NAME)
+                .tag("shard", "2")
+                .tag("method", "countByFinished")
+                .timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("全シャードを跨いでkeyset paginationとexportが作成順・ID順に並ぶことを確認する(Sharding)")
+    void testPageAndExportAcrossShards() {
+        // setup
+        List<Long> todoIds = new ArrayList<>();
+        for (Todo todo : newTodos(5)) {
+            todoIds.add(todoService.create(todo).getTodoId());
+        }
+
+        // run
+        List<Long> pagedIds = new ArrayList<>();
+        TodoCursor after = null;
+        do {
+            TodoPage page = todoService.findPage(TodoCriteria.empty(), after, 3);
+            page.getTodos().forEach(todo -> pagedIds.add(todo.getTodoId()));
+            after = page.getNext();
+        } while (after != null);
+        List<Long> exportedIds = new ArrayList<>();
+        todoService.exportAll(todo -> exportedIds.add(todo.getTodoId()));
+
+        // check
+        assertThat(pagedIds).isEqualTo(todoIds);
+        assertThat(exportedIds).isEqualTo(todoIds);
+    }
+
+    @Test
+    @DisplayName("finish・finishAllが各シャードに振り分けられ、未完了件数が更新されることを確認する(Sharding)")
+    void testFinishAcrossShards() {
+        // setup
+        List<Long> todoIds = todoService.createAll(newTodos(5)).stream()
+                .map(Todo::getTodoId)
+                .collect(Collectors.toList());
+        String aggregateVersion = todoService.findAggregateVersion();
+
+        // run
+        todoService.finish(todoIds.get(0));
+        List<TodoBulkResult> results = todoService.finishAll(todoIds);
+
+        // check
+        assertThat(results).extracting(TodoBulkResult::getStatus).containsExactly(
+                TodoBulkResult.Status.ALREADY_FINISHED, TodoBulkResult.Status.DONE, TodoBulkResult.Status.DONE,
+                TodoBulkResult.Status.DONE, TodoBulkResult.Status.DONE);
+        assertThat(todoRepository.countByFinished(true)).isEqualTo(5L);
+        assertThat(todoRepository.findUnfinishedCount()).isZero();
+        assertThat(todoService.findAggregateVersion()).isNotEqualTo(aggregateVersion);
+    }
+
+    @Test
+    @DisplayName("一部のシャードへのINSERTが失敗した場合に全シャードがロールバックされることを確認する(Sharding)")
+    void testRollbackAcrossShards() {
+        // setup
+        List<Todo> todos = newTodos(5);
+        todos.get(4).setTodoTitle("a title that is longer than thirty characters");
+
+        // run
+        assertThatThrownBy(() -> todoService.createAll(todos)).isInstanceOf(DataAccessException.class);
+
+        // check
+        todoShards.getDataSources().forEach(dataSource -> assertThat(count(dataSource)).isZero());
+        assertThat(todoRepository.findUnfinishedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("書き込みは対象のTodoがあるシャードのバージョン行だけをロックすることを確認する(Sharding)")
+    void testLockVersionsOfWrittenShards() {
+        // setup
+        Todo todo = todoService.create(new Todo(null, "todo 0", false, null));
+        int shard = shardOf(todo.getTodoId());
+        long[] before = lockCounts();
+
+        // run
+        todoService.finish(todo.getTodoId());
+        todoService.delete(todo.getTodoId());
+
+        // check
+        long[] after = lockCounts();
+        for (int i = 0; i < after.length; i++) {
+            assertThat(after[i] - before[i]).as("shard %d", i).isEqualTo((i == shard) ? 2L : 0L);
+        }
+    }
+
+    private long[] lockCounts() {
+        return IntStream.range(0, todoShards.getDataSources().size())
+                .mapToLong(shard -> meterRegistry.find(ShardedTodoRepository.TIMER_NAME)
+                        .tag("shard", String.valueOf(shard))
+                        .tag("method", "lockVersions")
+                        .timers().stream().mapToLong(Timer::count).sum())
+                .toArray();
+    }
+
+    private int shardOf(Long todoId) {
+        return ((ShardedTodoRepository) todoRepository).shardOf(todoId);
+    }
+
+    @Test
+    @DisplayName("シャード毎のバージョンを持つトークンで全シャードの変更と削除が取得できることを確認する(Sharding)")
+    void testFindChangesAcrossShards() {
+        // setup
+        List<Todo> todos = todoService.createAll(newTodos(5));
+        TodoChanges initial = todoService.findChanges(null, 100);
+        List<Long> todoIds = todos.stream().map(Todo::getTodoId).collect(Collectors.toList());
+        todoService.finishAll(todoIds.subList(0, 3));
+        todoService.deleteAll(todoIds.subList(3, 5));
+
+        // run
+        TodoChanges changes = todoService.findChanges(initial.getNext(), 100);
+        TodoChanges mismatched = todoService.findChanges(TodoSyncToken.of(0), 100);
+
+        // check
+        assertThat(initial.getNext().getVersions()).hasSize(3);
+        assertThat(initial.getTodos()).extracting(Todo::getTodoId).containsExactlyInAnyOrderElementsOf(todoIds);
+        assertThat(changes.getTodos()).extracting(Todo::getTodoId)
+            .containsExactlyInAnyOrderElementsOf(todoIds.subList(0, 3));
+        assertThat(changes.getDeletedIds()).containsExactlyInAnyOrderElementsOf(todoIds.subList(3, 5));
+        assertThat(changes.isReset()).isFalse();
+        assertThat(mismatched.isReset()).isTrue();
+        assertThat(mismatched.getTodos()).hasSize(3);
+    }
+
+    private static List<Todo> newTodos(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Todo(null, "todo " + i, false, null))
+                .collect(Collectors.toList());
+    }
+
+    private static long count(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM todo", Long.class);
+    }
+}
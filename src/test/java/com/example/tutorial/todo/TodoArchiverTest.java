@@ -0,0 +1,53 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archivetest",
+        "tutorial.todo.archive.enabled=true",
+        "tutorial.todo.archive.batch-size=2",
+        "tutorial.todo.archive.pause=1ms"})
+@DirtiesContext
+public class TodoArchiverTest {
+
+    @Autowired
+    private TodoArchiver todoArchiver;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("完了済の古いTodoがバッチ単位でアーカイブされ、件数とバッチ時間が記録されることを確認する(Archive)")
+    void testArchive() {
+        // setup
+        todoService.finishAll(List.of(1L, 3L));
+        TodoChanges before = todoService.findChanges(null, 100);
+        Todo recentTodo = todoService.create(new Todo(null, "recent todo", false, null));
+        todoService.finish(recentTodo.getTodoId());
+
+        // run
+        long archivedCount = todoArchiver.archive();
+        long secondRunCount = todoArchiver.archive();
+
+        // check
+        TodoCriteria includeArchived = new TodoCriteria(null, null, null, TodoSort.CREATED_AT_ASC, true);
+        assertThat(archivedCount).isEqualTo(3);
+        assertThat(secondRunCount).isZero();
+        assertThat(todoService.findAll()).extracting(Todo::getTodoId).containsExactly(recentTodo.getTodoId());
+        assertThat(todoService.findAll(includeArchived)).extracting(Todo::getTodoId)
+            .containsExactly(1L, 2L, 3L, recentTodo.getTodoId());
+        assertThat(todoService.findChanges(before.getNext(), 100).getDeletedIds()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(meterRegistry.get(TodoArchiver.ROWS_COUNTER_NAME).counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get(TodoArchiver.BATCH_TIMER_NAME).timer().count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:changefeedtest")
+@DirtiesContext
+public class TodoChangeFeedTest {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final List<Long> createdTodoIds = new ArrayList<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoChangeFeed todoChangeFeed;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanUp() {
+        todoService.deleteAll(createdTodoIds);
+    }
+
+    @Test
+    @DisplayName("コミットされた作成・完了・削除が連番付きのイベントとして配信されることを確認する(ChangeFeed)")
+    void testCommittedChanges() throws Exception {
+        // setup
+        BlockingQueue<String> lines = subscribe(null);
+        long lastSequence = todoChangeFeed.getLastSequence();
+
+        // run
+        Todo todo = create("feed todo");
+        todoService.finish(todo.getTodoId());
+        todoService.delete(todo.getTodoId());
+
+        // check
+        Map<String, String> created = nextEvent(lines);
+        assertThat(created).containsEntry("event", "created")
+                .containsEntry("id", todoChangeFeed.eventId(lastSequence + 1));
+        assertThat(data(created).get("todo").get("todoTitle").asText()).isEqualTo("feed todo");
+        Map<String, String> finished = nextEvent(lines);
+        assertThat(finished).containsEntry("event", "finished")
+                .containsEntry("id", todoChangeFeed.eventId(lastSequence + 2));
+        assertThat(data(finished).get("todo").get("finished").asBoolean()).isTrue();
+        Map<String, String> deleted = nextEvent(lines);
+        assertThat(deleted).containsEntry("event", "deleted")
+                .containsEntry("id", todoChangeFeed.eventId(lastSequence + 3));
+        assertThat(data(deleted).get("todoId").asLong()).isEqualTo(todo.getTodoId());
+        assertThat(data(deleted).has("todo")).isFalse();
+    }
+
+    @Test
+    @DisplayName("ロールバックされた変更はイベントにならないことを確認する(ChangeFeed)")
+    void testRollback() throws Exception {
+        // setup
+        BlockingQueue<String> lines = subscribe(null);
+        long lastSequence = todoChangeFeed.getLastSequence();
+
+        // run
+        transactionTemplate.executeWithoutResult(status -> {
+            todoService.create(new Todo(null, "rolled back todo", false, null));
+            status.setRollbackOnly();
+        });
+        create("committed todo");
+
+        // check
+        Map<String, String> event = nextEvent(lines);
+        assertThat(event).containsEntry("id", todoChangeFeed.eventId(lastSequence + 1));
+        assertThat(data(event).get("todo").get("todoTitle").asText()).isEqualTo("committed todo");
+    }
+
+    @Test
+    @DisplayName("Last-Event-ID以降のイベントから再開でき、範囲外や別インスタンスのIDならresetが送られることを確認する(ChangeFeed)")
+    void testResume() throws Exception {
+        // setup
+        create("missed todo 1");
+        create("missed todo 2");
+        long lastSequence = todoChangeFeed.getLastSequence();
+
+        // run
+        BlockingQueue<String> resumed = subscribe(todoChangeFeed.eventId(lastSequence - 1));
+        BlockingQueue<String> ahead = subscribe(todoChangeFeed.eventId(lastSequence + 100));
+        BlockingQueue<String> restarted = subscribe("1-" + (lastSequence - 1));
+
+        // check
+        Map<String, String> replayed = nextEvent(resumed);
+        assertThat(replayed).containsEntry("id", todoChangeFeed.eventId(lastSequence));
+        assertThat(data(replayed).get("todo").get("todoTitle").asText()).isEqualTo("missed todo 2");
+        assertThat(nextEvent(ahead)).containsEntry("event", TodoChangeFeed.RESET_EVENT)
+                .containsEntry("id", todoChangeFeed.eventId(lastSequence));
+        assertThat(nextEvent(restarted)).containsEntry("event", TodoChangeFeed.RESET_EVENT)
+                .containsEntry("id", todoChangeFeed.eventId(lastSequence));
+    }
+
+    @Test
+    @DisplayName("送信が詰まった購読者は切断され、他の購読者への配信は止まらないことを確認する(ChangeFeed)")
+    void testSlowSubscriber() throws Exception {
+        // setup
+        TodoChangeFeedProperties properties = new TodoChangeFeedProperties();
+        properties.setSubscriberQueueCapacity(3);
+        TodoChangeFeed changeFeed = new TodoChangeFeed(new TodoResourceMapper(), properties);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        SseEmitter slowEmitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                sending.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void complete() {
+                completed.countDown();
+            }
+        };
+        BlockingQueue<SseEmitter.SseEventBuilder> received = new LinkedBlockingQueue<>();
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.add(builder);
+            }
+        };
+        changeFeed.start();
+        try {
+            changeFeed.subscribe(slowEmitter, null);
+            changeFeed.subscribe(emitter, null);
+
+            // run
+            changeFeed.createdAfterCommit(List.of(new Todo(1L, "todo 1", false, null)));
+            assertThat(sending.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(received.poll(10, TimeUnit.SECONDS)).as("event 1").isNotNull();
+            // fills the slow subscriber's queue while its writer is stuck on the first event
+            changeFeed.createdAfterCommit(LongStream.rangeClosed(2, 4)
+                    .mapToObj(todoId -> new Todo(todoId, "todo " + todoId, false, null))
+                    .collect(Collectors.toList()));
+            for (int i = 2; i <= 4; i++) {
+                assertThat(received.poll(10, TimeUnit.SECONDS)).as("event %d", i).isNotNull();
+            }
+            changeFeed.createdAfterCommit(List.of(new Todo(5L, "todo 5", false, null)));
+
+            // check
+            assertThat(received.poll(10, TimeUnit.SECONDS)).as("event 5").isNotNull();
+            for (int i = 0; i < 500 && changeFeed.getSubscriberCount() > 1; i++) {
+                Thread.sleep(10);
+            }
+            assertThat(changeFeed.getSubscriberCount()).isEqualTo(1);
+            released.countDown();
+            assertThat(completed.await(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            released.countDown();
+            changeFeed.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("コンテキストのクローズ時に開いているストリームと以降のストリームが完了されることを確認する(ChangeFeed)")
+    void testContextClosed() throws Exception {
+        // setup
+        TodoChangeFeed changeFeed = new TodoChangeFeed(new TodoResourceMapper(), new TodoChangeFeedProperties());
+        CountDownLatch completed = new CountDownLatch(2);
+        changeFeed.start();
+        try {
+            changeFeed.subscribe(completingEmitter(completed), null);
+
+            // run
+            changeFeed.onApplicationEvent(new ContextClosedEvent(new StaticApplicationContext()));
+            changeFeed.subscribe(completingEmitter(completed), null);
+
+            // check
+            assertThat(completed.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(changeFeed.getSubscriberCount()).isZero();
+            assertThat(changeFeed.isRunning()).isTrue();
+        } finally {
+            changeFeed.stop();
+        }
+    }
+
+    private static SseEmitter completingEmitter(CountDownLatch completed) {
+        return new SseEmitter() {
+            @Override
+            public void complete() {
+                completed.countDown();
+            }
+        };
+    }
+
+    private Todo create(String todoTitle) {
+        Todo todo = todoService.create(new Todo(null, todoTitle, false, null));
+        createdTodoIds.add(todo.getTodoId());
+        return todo;
+    }
+
+    private BlockingQueue<String> subscribe(String lastEventId) throws InterruptedException {
+        int subscriberCount = todoChangeFeed.getSubscriberCount();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/todos/stream"));
+        if (lastEventId != null) {
+            request.header(TodoController.LAST_EVENT_ID_HEADER, lastEventId);
+        }
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines())
+                .thenAccept(response -> response.body().forEach(lines::add));
+        for (int i = 0; i < 500 && todoChangeFeed.getSubscriberCount() == subscriberCount; i++) {
+            Thread.sleep(10);
+        }
+        return lines;
+    }
+
+    private static Map<String, String> nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        Map<String, String> fields = new HashMap<>();
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            assertThat(line).as("next event line").isNotNull();
+            if (line.isEmpty()) {
+                if (!fields.isEmpty()) {
+                    return fields;
+                }
+            } else if (!line.startsWith(":")) {
+                int index = line.indexOf(':');
+                fields.put(line.substring(0, index), line.substring(index + 1));
+            }
+        }
+    }
+
+    private JsonNode data(Map<String, String> event) throws Exception {
+        return objectMapper.readTree(event.get("data"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.tutorial.todo;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TodoControllerGroupCommitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TodoService todoService;
+
+    @MockBean
+    private TodoCreateQueue todoCreateQueue;
+
+    @Test
+    @DisplayName("GroupCommitが有効な場合はPOST Todoが非同期に201を返すことを確認する(Controller)")
+    void testPostTodoAsynchronous() throws Exception {
+        // setup
+        Todo expectTodo = new Todo(4L, "sample todo 4", false, LocalDateTime.of(2019, 9, 19, 4, 4, 4));
+        CompletableFuture<Todo> createdTodo = new CompletableFuture<>();
+
+        // setup mocks
+        given(todoCreateQueue.submit(any(Todo.class))).willReturn(createdTodo);
+
+        // run
+        MvcResult mvcResult = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"todoTitle\":\"sample todo 4\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        createdTodo.complete(expectTodo);
+
+        // check
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.todoId").value(4))
+                .andExpect(jsonPath("$.todoTitle").value("sample todo 4"));
+        then(todoCreateQueue).should(times(1)).submit(any(Todo.class));
+        then(todoService).shouldHaveNoInteractions();
+    }
+}
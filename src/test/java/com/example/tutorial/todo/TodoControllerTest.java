@@ -1,31 +1,45 @@
 package com.example.tutorial.todo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
-import com.github.dozermapper.core.Mapper;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT) // (1)
+@AutoConfigureMockMvc
 public class TodoControllerTest {
 
     private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("uuuu/MM/dd HH:mm:ss");
@@ -34,7 +48,13 @@ public class TodoControllerTest {
     private TestRestTemplate testRestTemplate;
 
     @Autowired
-    private Mapper beanMapper;
+    private TodoResourceMapper todoResourceMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
 
     @MockBean // (3)
     private TodoService todoService;
@@ -47,27 +67,162 @@ public class TodoControllerTest {
         Todo expectTodo2 = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
         Collection<Todo> expectTodos = Arrays.asList(expectTodo1, expectTodo2);
         TodoResource[] expectTodoResources = expectTodos.stream()
-                .map(todo -> beanMapper.map(todo, TodoResource.class)).toArray(TodoResource[]::new);
+                .map(todoResourceMapper::toResource).toArray(TodoResource[]::new);
 
         // setup mocks
-        given(todoService.findAll()).willReturn(expectTodos);
+        given(todoService.findSnapshot()).willReturn(new TodoSnapshot("2-12", expectTodos));
 
         // run
         ResponseEntity<TodoResource[]> actualResponseEntity =
                 testRestTemplate.getForEntity("/todos", TodoResource[].class);
 
         // check
-        then(todoService).should(times(1)).findAll();
+        then(todoService).should(times(1)).findSnapshot();
+        assertThat(actualResponseEntity.getHeaders().getETag()).isEqualTo("\"2-12\"");
         assertThat(actualResponseEntity.getBody()).usingFieldByFieldElementComparator().containsExactly(expectTodoResources[0], expectTodoResources[1]);
         assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    @DisplayName("GET Todosの絞り込み・並び替え条件がServiceに渡されることを確認する(Controller)")
+    void testGetTodosFiltered() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        TodoResource expectTodoResource = todoResourceMapper.toResource(expectTodo);
+
+        // setup mocks
+        given(todoService.findAll(any(TodoCriteria.class))).willReturn(List.of(expectTodo));
+
+        // run
+        ResponseEntity<TodoResource[]> actualResponseEntity = testRestTemplate.getForEntity(
+                "/todos?finished=false&createdFrom=2019-09-19T00:00:00&createdTo=2019-09-20T00:00:00&sort=-createdAt",
+                TodoResource[].class);
+
+        // check
+        then(todoService).should(times(1)).findAll(ArgumentMatchers.argThat(arg -> Boolean.FALSE.equals(arg.getFinished())
+                && LocalDateTime.parse("2019-09-19T00:00:00").equals(arg.getCreatedFrom())
+                && LocalDateTime.parse("2019-09-20T00:00:00").equals(arg.getCreatedTo())
+                && arg.getSort() == TodoSort.CREATED_AT_DESC && !arg.isIncludeArchived()));
+        then(todoService).should(times(0)).findSnapshot();
+        assertThat(actualResponseEntity.getBody()).usingFieldByFieldElementComparator().containsExactly(expectTodoResource);
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("GET Todosに未対応の並び順を指定した場合は400となることを確認する(Controller)")
+    void testGetTodosInvalidSort() {
+        // run
+        ResponseEntity<String> actualResponseEntity =
+                testRestTemplate.getForEntity("/todos?sort=todoTitle", String.class);
+
+        // check
+        then(todoService).shouldHaveNoInteractions();
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("GET Todos searchが検索結果と総件数を返すことを確認する(Controller)")
+    void testSearchTodos() {
+        // setup
+        Todo expectTodo = new Todo(1L, "買い物 todo", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        TodoResource expectTodoResource = todoResourceMapper.toResource(expectTodo);
+
+        // setup mocks
+        given(todoService.search("買い物", 10, 5)).willReturn(new TodoSearchResult(List.of(expectTodo), 11));
+
+        // run
+        ResponseEntity<TodoResource[]> actualResponseEntity =
+                testRestTemplate.getForEntity("/todos/search?q={q}&offset=10&limit=5", TodoResource[].class, "買い物");
+
+        // check
+        then(todoService).should(times(1)).search("買い物", 10, 5);
+        assertThat(actualResponseEntity.getBody()).usingFieldByFieldElementComparator().containsExactly(expectTodoResource);
+        assertThat(actualResponseEntity.getHeaders().getFirst(TodoController.TOTAL_COUNT_HEADER)).isEqualTo("11");
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("GET Todos searchの検索語が空の場合は400となることを確認する(Controller)")
+    void testSearchTodosBlankQuery() {
+        // run
+        ResponseEntity<String> actualResponseEntity =
+                testRestTemplate.getForEntity("/todos/search?q={q}", String.class, " ");
+
+        // check
+        then(todoService).shouldHaveNoInteractions();
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("GET Todosのページ指定が正常に動作することを確認する(Controller)")
+    void testGetTodosPage() {
+        // setup
+        Todo expectTodo2 = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+        TodoCursor after = new TodoCursor(LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT), 1L);
+        TodoCursor next = TodoCursor.of(expectTodo2);
+        TodoResource expectTodoResource = todoResourceMapper.toResource(expectTodo2);
+
+        // setup mocks
+        given(todoService.findPage(ArgumentMatchers.any(TodoCriteria.class), ArgumentMatchers.argThat(arg -> arg.getTodoId() == 1L), ArgumentMatchers.eq(1)))
+                .willReturn(new TodoPage(List.of(expectTodo2), next));
+
+        // run
+        ResponseEntity<TodoResource[]> actualResponseEntity =
+                testRestTemplate.getForEntity("/todos?limit=1&after=" + after.encode(), TodoResource[].class);
+
+        // check
+        then(todoService).should(times(1)).findPage(ArgumentMatchers.argThat(TodoCriteria::isEmpty), ArgumentMatchers.argThat(arg -> after.getCreatedAt().equals(arg.getCreatedAt())), ArgumentMatchers.eq(1));
+        assertThat(actualResponseEntity.getBody()).usingFieldByFieldElementComparator().containsExactly(expectTodoResource);
+        assertThat(actualResponseEntity.getHeaders().getFirst(TodoController.NEXT_CURSOR_HEADER)).isEqualTo(next.encode());
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("GET Todosに不正なカーソルを指定した場合は400となることを確認する(Controller)")
+    void testGetTodosInvalidCursor() {
+        // run
+        ResponseEntity<String> actualResponseEntity =
+                testRestTemplate.getForEntity("/todos?after=invalid", String.class);
+
+        // check
+        then(todoService).shouldHaveNoInteractions();
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("GET Todos/exportがNDJSONで全Todoを返すことを確認する(Controller)")
+    void testExportTodos() throws Exception {
+        // setup
+        Todo expectTodo1 = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo expectTodo2 = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+        String expectBody = objectMapper.writeValueAsString(todoResourceMapper.toResource(expectTodo1)) + "\n"
+                + objectMapper.writeValueAsString(todoResourceMapper.toResource(expectTodo2)) + "\n";
+
+        // setup mocks
+        willAnswer(invocation -> {
+            Consumer<Todo> action = invocation.getArgument(0);
+            action.accept(expectTodo1);
+            action.accept(expectTodo2);
+            return null;
+        }).given(todoService).exportAll(any());
+
+        // run
+        ResponseEntity<String> actualResponseEntity =
+                testRestTemplate.getForEntity("/todos/export", String.class);
+
+        // check
+        then(todoService).should(times(1)).exportAll(any());
+        assertThat(actualResponseEntity.getBody()).isEqualTo(expectBody);
+        assertThat(actualResponseEntity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
     @Test
     @DisplayName("GET Todoが正常に動作することを確認する(Controller)")
     void testGetTodo(){
         // setup
         Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
-        TodoResource expectTodoResource = beanMapper.map(expectTodo, TodoResource.class);
+        TodoResource expectTodoResource = todoResourceMapper.toResource(expectTodo);
 
         // setup mocks
         given(this.todoService.findOne(1L)).willReturn(expectTodo);
@@ -82,15 +237,92 @@ public class TodoControllerTest {
         assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    @DisplayName("GET TodoのETagが一致する場合は304となることを確認する(Controller)")
+    void testGetTodoNotModified() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT), 7L);
+
+        // setup mocks
+        given(this.todoService.findOne(1L)).willReturn(expectTodo);
+
+        // run
+        ResponseEntity<TodoResource> firstResponseEntity =
+                testRestTemplate.getForEntity("/todos/1", TodoResource.class);
+        RequestEntity<Void> conditionalRequestEntity = RequestEntity.get(URI.create("/todos/1"))
+                .ifNoneMatch(firstResponseEntity.getHeaders().getETag()).build();
+        ResponseEntity<TodoResource> actualResponseEntity =
+                testRestTemplate.exchange(conditionalRequestEntity, TodoResource.class);
+
+        // check
+        assertThat(firstResponseEntity.getHeaders().getETag()).isEqualTo("\"7\"");
+        assertThat(actualResponseEntity.getBody()).isNull();
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @DisplayName("GET TodosのETagが一致する場合は304となることを確認する(Controller)")
+    void testGetTodosNotModified() {
+        // setup mocks
+        given(this.todoService.findSnapshot()).willReturn(new TodoSnapshot("3-42", List.of()));
+
+        // run
+        RequestEntity<Void> conditionalRequestEntity = RequestEntity.get(URI.create("/todos"))
+                .ifNoneMatch("\"3-42\"").build();
+        ResponseEntity<TodoResource[]> actualResponseEntity =
+                testRestTemplate.exchange(conditionalRequestEntity, TodoResource[].class);
+
+        // check
+        then(todoService).should(times(0)).findAggregateVersion();
+        assertThat(actualResponseEntity.getHeaders().getETag()).isEqualTo("\"3-42\"");
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @DisplayName("キャッシュされた一覧は自身のバージョンをETagとし、より新しいバージョンと組み合わせないことを確認する(Controller)")
+    void testGetTodosSnapshotVersion() {
+        // setup mocks
+        given(this.todoService.findSnapshot()).willReturn(new TodoSnapshot("3-42", List.of()));
+        given(this.todoService.findAggregateVersion()).willReturn("4-43");
+
+        // run
+        RequestEntity<Void> conditionalRequestEntity = RequestEntity.get(URI.create("/todos"))
+                .ifNoneMatch("\"4-43\"").build();
+        ResponseEntity<TodoResource[]> actualResponseEntity =
+                testRestTemplate.exchange(conditionalRequestEntity, TodoResource[].class);
+
+        // check
+        assertThat(actualResponseEntity.getHeaders().getETag()).isEqualTo("\"3-42\"");
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("絞り込んだGET TodosのETagが一致する場合は一覧を読み込まずに304となることを確認する(Controller)")
+    void testGetTodosFilteredNotModified() {
+        // setup mocks
+        given(this.todoService.findAggregateVersion()).willReturn("3-42");
+
+        // run
+        RequestEntity<Void> conditionalRequestEntity = RequestEntity.get(URI.create("/todos?finished=false"))
+                .ifNoneMatch("\"3-42\"").build();
+        ResponseEntity<TodoResource[]> actualResponseEntity =
+                testRestTemplate.exchange(conditionalRequestEntity, TodoResource[].class);
+
+        // check
+        then(todoService).should(times(0)).findAll(any(TodoCriteria.class));
+        assertThat(actualResponseEntity.getHeaders().getETag()).isEqualTo("\"3-42\"");
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
     @Test
     @DisplayName("POST Todoが正常に動作することを確認する(Controller)")
     void testPostTodo() {
         // setup
         TodoResource inputTodoResource = new TodoResource();
         inputTodoResource.setTodoTitle("sample todo 4");
-        Todo inputTodo = beanMapper.map(inputTodoResource, Todo.class);
+        Todo inputTodo = todoResourceMapper.toTodo(inputTodoResource);
         Todo expectTodo = new Todo(4L, "sample todo 4", false, LocalDateTime.parse("2019/09/19 04:04:04", DATETIME_FORMAT));
-        TodoResource expectTodoResource = beanMapper.map(expectTodo, TodoResource.class);
+        TodoResource expectTodoResource = todoResourceMapper.toResource(expectTodo);
 
         // setup mocks
         given(this.todoService.create(any(Todo.class))).willReturn(expectTodo);
@@ -105,12 +337,78 @@ public class TodoControllerTest {
         assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
     }
 
+    @Test
+    @DisplayName("GroupCommitが無効な場合はPOST Todoがリクエストスレッドで作成されることを確認する(Controller)")
+    void testPostTodoSynchronous() throws Exception {
+        // setup
+        Todo expectTodo = new Todo(4L, "sample todo 4", false, LocalDateTime.parse("2019/09/19 04:04:04", DATETIME_FORMAT));
+
+        // setup mocks
+        given(this.todoService.create(any(Todo.class))).willReturn(expectTodo);
+
+        // run
+        MvcResult mvcResult = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"todoTitle\":\"sample todo 4\"}"))
+                .andReturn();
+
+        // check
+        then(todoService).should(times(1)).create(any(Todo.class));
+        assertThat(mvcResult.getAsyncResult(0)).isInstanceOf(ResponseEntity.class);
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.todoId").value(4))
+                .andExpect(jsonPath("$.todoTitle").value("sample todo 4"));
+    }
+
+    @Test
+    @DisplayName("POST Todos/batchが正常に動作することを確認する(Controller)")
+    void testPostTodos() {
+        // setup
+        TodoResource inputTodoResource1 = new TodoResource();
+        inputTodoResource1.setTodoTitle("sample todo 4");
+        TodoResource inputTodoResource2 = new TodoResource();
+        inputTodoResource2.setTodoTitle("sample todo 5");
+        Todo expectTodo1 = new Todo(4L, "sample todo 4", false, LocalDateTime.parse("2019/09/19 04:04:04", DATETIME_FORMAT));
+        Todo expectTodo2 = new Todo(5L, "sample todo 5", false, LocalDateTime.parse("2019/09/19 04:04:04", DATETIME_FORMAT));
+
+        // setup mocks
+        given(this.todoService.createAll(ArgumentMatchers.anyList())).willReturn(List.of(expectTodo1, expectTodo2));
+
+        // run
+        ResponseEntity<TodoResource[]> actualResponseEntity = testRestTemplate.postForEntity("/todos/batch",
+                List.of(inputTodoResource1, inputTodoResource2), TodoResource[].class);
+
+        // check
+        then(todoService).should(times(1)).createAll(ArgumentMatchers.<List<Todo>>argThat(arg -> arg.size() == 2
+                && "sample todo 4".equals(arg.get(0).getTodoTitle()) && "sample todo 5".equals(arg.get(1).getTodoTitle())));
+        assertThat(actualResponseEntity.getBody()).usingFieldByFieldElementComparator()
+                .containsExactly(todoResourceMapper.toResource(expectTodo1), todoResourceMapper.toResource(expectTodo2));
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    @DisplayName("POST Todos/batchに不正なTodoが含まれる場合は400となることを確認する(Controller)")
+    void testPostTodosInvalid() {
+        // setup
+        TodoResource validTodoResource = new TodoResource();
+        validTodoResource.setTodoTitle("sample todo 4");
+        TodoResource invalidTodoResource = new TodoResource();
+
+        // run
+        ResponseEntity<String> actualResponseEntity = testRestTemplate.postForEntity("/todos/batch",
+                List.of(validTodoResource, invalidTodoResource), String.class);
+
+        // check
+        then(todoService).shouldHaveNoInteractions();
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     @DisplayName("PUT Todoが正常に動作することを確認する(Controller)")
     void testPutTodo() {
         // setup
         Todo expectTodo = new Todo(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
-        TodoResource expectTodoResource = beanMapper.map(expectTodo, TodoResource.class);
+        TodoResource expectTodoResource = todoResourceMapper.toResource(expectTodo);
 
         // setup mocks
         given(this.todoService.finish(1L)).willReturn(expectTodo);
@@ -127,6 +425,98 @@ public class TodoControllerTest {
         assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    @DisplayName("PUT TodoにIf-Matchを指定した場合はversion付きでfinishされることを確認する(Controller)")
+    void testPutTodoIfMatch() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT), 8L);
+
+        // setup mocks
+        given(this.todoService.finish(1L, 7L)).willReturn(expectTodo);
+
+        // run
+        RequestEntity<String> actualRequestEntity =
+                RequestEntity.put(URI.create("/todos/1")).header(HttpHeaders.IF_MATCH, "\"7\"").body("");
+        ResponseEntity<TodoResource> actualResponseEntity =
+                testRestTemplate.exchange(actualRequestEntity, TodoResource.class);
+
+        // check
+        then(todoService).should(times(1)).finish(1L, 7L);
+        assertThat(actualResponseEntity.getBody()).isEqualToComparingFieldByField(todoResourceMapper.toResource(expectTodo));
+        assertThat(actualResponseEntity.getHeaders().getETag()).isEqualTo("\"8\"");
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("PUT Todoに不正なIf-Matchを指定した場合は412となることを確認する(Controller)")
+    void testPutTodoInvalidIfMatch() {
+        // run
+        RequestEntity<String> actualRequestEntity =
+                RequestEntity.put(URI.create("/todos/1")).header(HttpHeaders.IF_MATCH, "W/\"7\"").body("");
+        ResponseEntity<String> actualResponseEntity =
+                testRestTemplate.exchange(actualRequestEntity, String.class);
+
+        // check
+        then(todoService).shouldHaveNoInteractions();
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    @DisplayName("PUT Todos/finishが正常に動作することを確認する(Controller)")
+    void testPutTodos() {
+        // setup
+        List<TodoBulkResult> expectResults = List.of(new TodoBulkResult(1L, TodoBulkResult.Status.DONE),
+                new TodoBulkResult(2L, TodoBulkResult.Status.ALREADY_FINISHED));
+
+        // setup mocks
+        given(this.todoService.finishAll(List.of(1L, 2L))).willReturn(expectResults);
+
+        // run
+        RequestEntity<List<Long>> actualRequestEntity =
+                RequestEntity.put(URI.create("/todos/finish")).body(List.of(1L, 2L));
+        ResponseEntity<TodoBulkResult[]> actualResponseEntity =
+                testRestTemplate.exchange(actualRequestEntity, TodoBulkResult[].class);
+
+        // check
+        then(todoService).should(times(1)).finishAll(List.of(1L, 2L));
+        assertThat(actualResponseEntity.getBody()).usingFieldByFieldElementComparator().containsExactlyElementsOf(expectResults);
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("DELETE Todosが正常に動作することを確認する(Controller)")
+    void testDeleteTodos() {
+        // setup
+        List<TodoBulkResult> expectResults = List.of(new TodoBulkResult(1L, TodoBulkResult.Status.DONE),
+                new TodoBulkResult(99L, TodoBulkResult.Status.NOT_FOUND));
+
+        // setup mocks
+        given(this.todoService.deleteAll(List.of(1L, 99L))).willReturn(expectResults);
+
+        // run
+        ResponseEntity<TodoBulkResult[]> actualResponseEntity = testRestTemplate.exchange("/todos",
+                HttpMethod.DELETE, new HttpEntity<>(List.of(1L, 99L)), TodoBulkResult[].class);
+
+        // check
+        then(todoService).should(times(1)).deleteAll(List.of(1L, 99L));
+        assertThat(actualResponseEntity.getBody()).usingFieldByFieldElementComparator().containsExactlyElementsOf(expectResults);
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("PUT Todos/finishに空のID一覧を指定した場合は400となることを確認する(Controller)")
+    void testPutTodosEmpty() {
+        // run
+        RequestEntity<List<Long>> actualRequestEntity =
+                RequestEntity.put(URI.create("/todos/finish")).body(List.of());
+        ResponseEntity<String> actualResponseEntity =
+                testRestTemplate.exchange(actualRequestEntity, String.class);
+
+        // check
+        then(todoService).shouldHaveNoInteractions();
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     @DisplayName("DELETE Todoが正常に動作することを確認する(Controller)")
     void testDeleteTodo() {
@@ -140,4 +530,52 @@ public class TodoControllerTest {
         assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
 
+    @Test
+    @DisplayName("GET Todos/changesで変更・削除IDと次のトークンが返り、不正なトークンは400となることを確認する(Controller)")
+    void testGetChanges() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT), 7L);
+        TodoSyncToken since = TodoSyncToken.of(5L);
+
+        // setup mocks
+        given(todoService.findChanges(ArgumentMatchers.argThat(arg -> arg.getVersions().equals(List.of(5L))),
+                ArgumentMatchers.eq(50)))
+            .willReturn(new TodoChanges(List.of(expectTodo), List.of(3L), TodoSyncToken.of(8L), true, false));
+
+        // run
+        ResponseEntity<TodoChangesResource> actualResponseEntity = testRestTemplate.getForEntity(
+                "/todos/changes?since={since}&limit=50", TodoChangesResource.class, since.encode());
+        ResponseEntity<String> invalidResponseEntity =
+                testRestTemplate.getForEntity("/todos/changes?since=not-a-token", String.class);
+
+        // check
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(actualResponseEntity.getBody().getTodos()).extracting(TodoResource::getTodoId, TodoResource::getVersion)
+            .containsExactly(tuple(1L, 7L));
+        assertThat(actualResponseEntity.getBody().getDeletedIds()).containsExactly(3L);
+        assertThat(TodoSyncToken.decode(actualResponseEntity.getBody().getNext()).getVersions()).containsExactly(8L);
+        assertThat(actualResponseEntity.getBody().isHasMore()).isTrue();
+        assertThat(actualResponseEntity.getBody().isReset()).isFalse();
+        assertThat(invalidResponseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("GET TodosでincludeArchivedを指定するとアーカイブを含む条件でServiceが呼ばれることを確認する(Controller)")
+    void testGetTodosIncludeArchived() {
+        // setup
+        Todo expectTodo = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoService.findAll(any(TodoCriteria.class))).willReturn(List.of(expectTodo));
+
+        // run
+        ResponseEntity<TodoResource[]> actualResponseEntity = testRestTemplate.getForEntity(
+                "/todos?includeArchived=true", TodoResource[].class);
+
+        // check
+        then(todoService).should(times(1)).findAll(ArgumentMatchers.argThat(TodoCriteria::isIncludeArchived));
+        then(todoService).should(times(0)).findSnapshot();
+        assertThat(actualResponseEntity.getBody()).extracting(TodoResource::getTodoId).containsExactly(2L);
+        assertThat(actualResponseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
 }
\ No newline at end of file
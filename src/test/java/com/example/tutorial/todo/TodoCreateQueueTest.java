@@ -0,0 +1,154 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import com.example.tutorial.common.exception.BusinessException;
+import com.example.tutorial.common.exception.ServiceUnavailableException;
+
+public class TodoCreateQueueTest {
+
+    private final TodoService todoService = mock(TodoService.class);
+
+    private TodoCreateQueue todoCreateQueue;
+
+    @AfterEach
+    void stop() {
+        todoCreateQueue.stop();
+    }
+
+    @Test
+    @DisplayName("待ち時間内に投入されたTodoが1回の作成にまとめられることを確認する(GroupCommit)")
+    void testGroupCommit() throws Exception {
+        // setup
+        todoCreateQueue = start(10, 10, Duration.ofMillis(500));
+        Todo todo1 = new Todo(null, "group todo 1", false, null);
+        Todo todo2 = new Todo(null, "group todo 2", false, null);
+        Todo todo3 = new Todo(null, "group todo 3", false, null);
+
+        // setup mocks
+        given(todoService.createAvailable(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        // run
+        CompletableFuture<Todo> future1 = todoCreateQueue.submit(todo1);
+        CompletableFuture<Todo> future2 = todoCreateQueue.submit(todo2);
+        CompletableFuture<Todo> future3 = todoCreateQueue.submit(todo3);
+
+        // check
+        assertThat(future1.get(5, TimeUnit.SECONDS)).isSameAs(todo1);
+        assertThat(future2.get(5, TimeUnit.SECONDS)).isSameAs(todo2);
+        assertThat(future3.get(5, TimeUnit.SECONDS)).isSameAs(todo3);
+        then(todoService).should(times(1)).createAvailable(List.of(todo1, todo2, todo3));
+    }
+
+    @Test
+    @DisplayName("上限を超えたTodoだけがBusinessExceptionで完了することを確認する(GroupCommit)")
+    void testUnfinishedLimit() throws Exception {
+        // setup
+        todoCreateQueue = start(10, 10, Duration.ofMillis(500));
+        Todo todo1 = new Todo(null, "group todo 1", false, null);
+        Todo todo2 = new Todo(null, "group todo 2", false, null);
+
+        // setup mocks
+        given(todoService.createAvailable(anyList())).willReturn(List.of(todo1));
+
+        // run
+        CompletableFuture<Todo> future1 = todoCreateQueue.submit(todo1);
+        CompletableFuture<Todo> future2 = todoCreateQueue.submit(todo2);
+
+        // check
+        assertThat(future1.get(5, TimeUnit.SECONDS)).isSameAs(todo1);
+        assertThatThrownBy(() -> future2.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("キューが満杯の場合はServiceUnavailableExceptionとなることを確認する(GroupCommit)")
+    void testBackpressure() throws Exception {
+        // setup
+        todoCreateQueue = start(1, 1, Duration.ZERO);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // setup mocks
+        willAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        }).given(todoService).createAvailable(anyList());
+
+        // run
+        CompletableFuture<Todo> writingFuture = todoCreateQueue.submit(new Todo(null, "group todo 1", false, null));
+        writing.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Todo> queuedFuture = todoCreateQueue.submit(new Todo(null, "group todo 2", false, null));
+
+        // check
+        assertThatThrownBy(() -> todoCreateQueue.submit(new Todo(null, "group todo 3", false, null)))
+                .isInstanceOf(ServiceUnavailableException.class);
+        release.countDown();
+        assertThat(writingFuture.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(queuedFuture.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("書き込みスレッドが割り込まれた場合は待機中のTodoがServiceUnavailableExceptionで完了することを確認する(GroupCommit)")
+    void testInterruptedWriter() throws Exception {
+        // setup
+        todoCreateQueue = start(10, 1, Duration.ZERO);
+        CountDownLatch writing = new CountDownLatch(1);
+        AtomicReference<Thread> writer = new AtomicReference<>();
+
+        // setup mocks
+        willAnswer(invocation -> {
+            writer.set(Thread.currentThread());
+            writing.countDown();
+            while (!Thread.currentThread().isInterrupted()) {
+                LockSupport.park();
+            }
+            return invocation.getArgument(0);
+        }).given(todoService).createAvailable(anyList());
+
+        // run
+        CompletableFuture<Todo> writingFuture = todoCreateQueue.submit(new Todo(null, "group todo 1", false, null));
+        writing.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Todo> queuedFuture = todoCreateQueue.submit(new Todo(null, "group todo 2", false, null));
+        writer.get().interrupt();
+
+        // check
+        assertThat(writingFuture.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThatThrownBy(() -> queuedFuture.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ServiceUnavailableException.class);
+        writer.get().join(5000);
+        assertThat(writer.get().isAlive()).isFalse();
+        then(todoService).should(times(1)).createAvailable(anyList());
+    }
+
+    private TodoCreateQueue start(int capacity, int batchSize, Duration maxLinger) {
+        TodoCreateQueueProperties properties = new TodoCreateQueueProperties();
+        properties.setCapacity(capacity);
+        properties.setBatchSize(batchSize);
+        properties.setMaxLinger(maxLinger);
+        properties.setOfferTimeout(Duration.ofMillis(10));
+        TodoCreateQueue queue = new TodoCreateQueue(todoService, properties);
+        queue.start();
+        return queue;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@JsonTest
+public class TodoListSerializerTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TodoResourceMapper todoResourceMapper = new TodoResourceMapper();
+
+    @Test
+    @DisplayName("TodoListのJSONがTodoResourceのリストのJSONとバイト単位で一致することを確認する(Serializer)")
+    void testSameBytesAsTodoResources() throws Exception {
+        // setup
+        List<Todo> todos = List.of(
+                new Todo(1L, "sample todo 1", false, LocalDateTime.of(2019, 9, 19, 1, 1, 1), 7L),
+                new Todo(2L, "\"quoted\" \\ \n\tタイトル \u0001", true, LocalDateTime.of(999, 1, 2, 3, 4, 5, 999_999_999), 8L),
+                new Todo(null, null, false, null),
+                new Todo(Long.MAX_VALUE, "", true, LocalDateTime.of(10000, 12, 31, 23, 59, 59), Long.MIN_VALUE));
+
+        // run
+        byte[] actualBytes = objectMapper.writeValueAsBytes(new TodoList(todos));
+
+        // check
+        assertThat(actualBytes).isEqualTo(objectMapper.writeValueAsBytes(todoResourceMapper.toResources(todos)));
+    }
+
+    @Test
+    @DisplayName("空のTodoListが空配列になることを確認する(Serializer)")
+    void testEmpty() throws Exception {
+        // run
+        String actualJson = objectMapper.writeValueAsString(new TodoList(List.of()));
+
+        // check
+        assertThat(actualJson).isEqualTo("[]");
+    }
+}
@@ -2,14 +2,30 @@ package com.example.tutorial.todo;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -24,9 +40,18 @@ public class TodoRepositoryTest {
     @Autowired
     private TodoRepository todoRepository; // (2)
 
+    @Autowired
+    private TodoChangeMapper todoChangeMapper;
+
     @Autowired
     NamedParameterJdbcOperations jdbcOperations; // (3)
 
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    DataSource dataSource;
+
     @Test
     @DisplayName("全Todoが取得できることを確認する(Repository)")
     void testFindAll() {
@@ -41,6 +66,35 @@ public class TodoRepositoryTest {
                     tuple(3L, "sample todo 3", false, LocalDateTime.parse("2019/09/19 03:03:03", DATETIME_FORMAT)));
     }
 
+    @Test
+    @DisplayName("カーソル以降のTodoが作成日時順に指定件数だけ取得できることを確認する(Repository)")
+    void testFindPage() {
+        // run
+        List<Todo> firstPage = todoRepository.findByCriteria(TodoCriteria.empty(), null, 2);
+        List<Todo> secondPage = todoRepository.findByCriteria(TodoCriteria.empty(), TodoCursor.of(firstPage.get(1)), 2);
+
+        // check
+        assertThat(firstPage).extracting(Todo::getTodoId).containsExactly(1L, 2L);
+        assertThat(secondPage).extracting(Todo::getTodoId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("カーソルで全Todoを順に読み出せることを確認する(Repository)")
+    void testScanAll() throws IOException {
+        // run
+        List<Todo> actualTodos = new ArrayList<>();
+        try (Cursor<Todo> cursor = todoRepository.scanAll()) {
+            cursor.forEach(actualTodos::add);
+        }
+
+        // check
+        assertThat(actualTodos)
+            .extracting(Todo::getTodoId, Todo::getTodoTitle, Todo::isFinished, Todo::getCreatedAt)
+            .containsExactly(tuple(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT)),
+                    tuple(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT)),
+                    tuple(3L, "sample todo 3", false, LocalDateTime.parse("2019/09/19 03:03:03", DATETIME_FORMAT)));
+    }
+
     @Test
     @DisplayName("todoIdに対応するTodoが取得できることを確認する(Repository)")
     void testFindById() {
@@ -69,6 +123,26 @@ public class TodoRepositoryTest {
             .hasNoNullFieldsOrProperties();
     }
 
+    @Test
+    @DisplayName("複数のTodoを1文で作成し採番されたIDが順に設定されることを確認する(Repository)")
+    void testCreateAll() {
+        // setup
+        LocalDateTime createdAt = LocalDateTime.parse("2019/09/19 04:04:04", DATETIME_FORMAT);
+        List<Todo> actualTodos = List.of(new Todo(null, "sample todo 4", false, createdAt),
+                new Todo(null, "sample todo 5", false, createdAt),
+                new Todo(null, "sample todo 6", false, createdAt));
+
+        // run
+        todoRepository.createAll(actualTodos);
+
+        // check
+        Todo lastTodo = getLastTodo();
+        assertThat(actualTodos).extracting(Todo::getTodoId)
+            .containsExactly(lastTodo.getTodoId() - 2, lastTodo.getTodoId() - 1, lastTodo.getTodoId());
+        assertThat(getTodo(lastTodo.getTodoId() - 2).getTodoTitle()).isEqualTo("sample todo 4");
+        assertThat(lastTodo.getTodoTitle()).isEqualTo("sample todo 6");
+    }
+
     @Test
     @DisplayName("finishedをfalseからtrueに変更できることを確認する(Repository)")
     void testUpdateById() {
@@ -82,8 +156,44 @@ public class TodoRepositoryTest {
         // check
         assertThat(count).isEqualTo(1L);
         assertThat(updated)
-            .isEqualToIgnoringGivenFields(todo, "finished")
+            .isEqualToIgnoringGivenFields(todo, "finished", "version")
             .hasFieldOrPropertyWithValue("finished", true);
+        assertThat(updated.getVersion()).isGreaterThan(todo.getVersion());
+    }
+
+    @Test
+    @DisplayName("versionが一致する場合のみfinishedをtrueに変更できることを確認する(Repository)")
+    void testUpdateByIdAndVersion() {
+        // setup
+        Todo todo = getTodo(1L);
+
+        // run
+        long staleCount = todoRepository.updateByIdAndVersion(1L, todo.getVersion() + 100);
+        long count = todoRepository.updateByIdAndVersion(1L, todo.getVersion());
+
+        // check
+        assertThat(staleCount).isEqualTo(0L);
+        assertThat(count).isEqualTo(1L);
+        assertThat(getTodo(1L).isFinished()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Todoの追加・更新・削除のたびに集約バージョンが変わることを確認する(Repository)")
+    void testFindAggregateVersion() {
+        // setup
+        String initialVersion = todoRepository.findAggregateVersion();
+
+        // run & check
+        todoRepository.updateById(1L);
+        String updatedVersion = todoRepository.findAggregateVersion();
+        assertThat(updatedVersion).isNotEqualTo(initialVersion);
+
+        todoRepository.deleteById(2L);
+        String deletedVersion = todoRepository.findAggregateVersion();
+        assertThat(deletedVersion).isNotIn(initialVersion, updatedVersion);
+
+        todoRepository.create(new Todo(null, "sample todo 4", false, LocalDateTime.parse("2019/09/19 04:04:04", DATETIME_FORMAT)));
+        assertThat(todoRepository.findAggregateVersion()).isNotIn(initialVersion, updatedVersion, deletedVersion);
     }
 
     @Test
@@ -96,6 +206,43 @@ public class TodoRepositoryTest {
         assertThat(count).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("完了状態・作成日時で絞り込んだTodoが指定した順序で取得できることを確認する(Repository)")
+    void testFindByCriteria() {
+        // setup
+        TodoCriteria criteria = new TodoCriteria(false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT),
+                LocalDateTime.parse("2019/09/19 03:03:04", DATETIME_FORMAT), TodoSort.CREATED_AT_DESC);
+
+        // run
+        List<Todo> actualTodos = todoRepository.findByCriteria(criteria, null, null);
+        List<Todo> firstPage = todoRepository.findByCriteria(criteria, null, 1);
+        List<Todo> secondPage = todoRepository.findByCriteria(criteria, TodoCursor.of(firstPage.get(0)), 1);
+
+        // check
+        assertThat(actualTodos).extracting(Todo::getTodoId).containsExactly(3L, 1L);
+        assertThat(firstPage).extracting(Todo::getTodoId).containsExactly(3L);
+        assertThat(secondPage).extracting(Todo::getTodoId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("絞り込み・件数取得のクエリがテーブルスキャンせずインデックスを使うことを確認する(Repository)")
+    void testQueryPlansUseIndexes() throws SQLException {
+        // setup
+        LocalDateTime createdFrom = LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT);
+        Map<String, Object> byFinished = criteriaParameter(new TodoCriteria(false, createdFrom, null, TodoSort.CREATED_AT_ASC));
+        Map<String, Object> byCreatedAt = criteriaParameter(new TodoCriteria(null, createdFrom, null, TodoSort.CREATED_AT_DESC));
+
+        // run
+        String byFinishedPlan = explain("findByCriteria", byFinished);
+        String byCreatedAtPlan = explain("findByCriteria", byCreatedAt);
+        String countPlan = explain("countByFinished", false);
+
+        // check
+        assertThat(byFinishedPlan).contains("IDX_TODO_FINISHED_CREATED_AT").doesNotContain("tableScan");
+        assertThat(byCreatedAtPlan).contains("IDX_TODO_CREATED_AT").doesNotContain("tableScan");
+        assertThat(countPlan).contains("IDX_TODO_FINISHED_CREATED_AT").doesNotContain("tableScan");
+    }
+
     @Test
     @DisplayName("未完了 or 完了済のTodoの件数を取得できることを確認する(Repository)")
     void testCountByFinished() {
@@ -108,6 +255,83 @@ public class TodoRepositoryTest {
         assertThat(finishedCount).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("完了済のTodoはupdateByIdで更新されないことを確認する(Repository)")
+    void testUpdateByIdAlreadyFinished() {
+        // run
+        long count = todoRepository.updateById(2L);
+
+        // check
+        assertThat(count).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("指定したIDのうち存在するTodoのみロックせずに取得できることを確認する(Repository)")
+    void testFindAllById() {
+        // run
+        List<Todo> actualTodos = todoRepository.findAllById(List.of(3L, 1L, 99L));
+
+        // check
+        assertThat(actualTodos).extracting(Todo::getTodoId, Todo::getTodoTitle)
+                .containsExactlyInAnyOrder(tuple(1L, "sample todo 1"), tuple(3L, "sample todo 3"));
+    }
+
+    @Test
+    @DisplayName("指定したIDのうち存在するTodoのみ取得できることを確認する(Repository)")
+    void testFindAllByIdForUpdate() {
+        // run
+        List<Todo> actualTodos = todoRepository.findAllByIdForUpdate(List.of(1L, 2L, 99L));
+
+        // check
+        assertThat(actualTodos).extracting(Todo::getTodoId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("指定したIDのうち未完了のTodoのみまとめて完了済に変更できることを確認する(Repository)")
+    void testUpdateAllById() {
+        // run
+        long count = todoRepository.updateAllById(List.of(1L, 2L, 3L));
+
+        // check
+        assertThat(count).isEqualTo(2L);
+        assertThat(todoRepository.countByFinished(false)).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("指定したIDのTodoをまとめて削除できることを確認する(Repository)")
+    void testDeleteAllById() {
+        // run
+        long count = todoRepository.deleteAllById(List.of(1L, 3L, 99L));
+
+        // check
+        assertThat(count).isEqualTo(2L);
+        assertThat(todoRepository.findAll()).extracting(Todo::getTodoId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("未完了件数のカウンタが上限を超えない範囲でのみ加算されることを確認する(Repository)")
+    void testIncrementUnfinishedCount() {
+        // run
+        long incremented = todoRepository.incrementUnfinishedCount(3, 5);
+        long overLimit = todoRepository.incrementUnfinishedCount(1, 5);
+
+        // check
+        assertThat(incremented).isEqualTo(1L);
+        assertThat(overLimit).isEqualTo(0L);
+        assertThat(todoRepository.findUnfinishedCount()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("未完了件数のカウンタが減算されることを確認する(Repository)")
+    void testDecrementUnfinishedCount() {
+        // run
+        long count = todoRepository.decrementUnfinishedCount(1);
+
+        // check
+        assertThat(count).isEqualTo(1L);
+        assertThat(todoRepository.findUnfinishedCount()).isEqualTo(1L);
+    }
+
     private Todo getLastTodo() {
         String sql = "SELECT * FROM todo ORDER BY todo_id DESC LIMIT 1";
         SqlParameterSource paramSource = new EmptySqlParameterSource();
@@ -115,6 +339,28 @@ public class TodoRepositoryTest {
         return jdbcOperations.queryForObject(sql, paramSource, rowMapper);
     }
 
+    private Map<String, Object> criteriaParameter(TodoCriteria criteria) {
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("criteria", criteria);
+        parameter.put("after", null);
+        parameter.put("limit", 100);
+        return parameter;
+    }
+
+    private String explain(String statementId, Object parameter) throws SQLException {
+        MappedStatement mappedStatement = sqlSessionFactory.getConfiguration()
+                .getMappedStatement(TodoRepository.class.getName() + "." + statementId);
+        BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            new DefaultParameterHandler(mappedStatement, parameter, boundSql).setParameters(statement);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
     private Todo getTodo(Long todoId) {
         String sql = "SELECT * FROM todo WHERE todo_id=:todoId";
         SqlParameterSource paramSource = new MapSqlParameterSource().addValue("todoId", todoId);
@@ -122,4 +368,95 @@ public class TodoRepositoryTest {
         return jdbcOperations.queryForObject(sql, paramSource, rowMapper);
     }
 
+    @Test
+    @DisplayName("トークン以降に作成・完了されたTodoと削除されたIDだけがバージョン順に取得できることを確認する(Repository)")
+    void testFindChanges() {
+        // setup
+        TodoChanges initial = todoChangeMapper.findChanges(null, 100);
+        todoRepository.updateById(1L);
+        todoRepository.deleteById(3L);
+        todoRepository.createTombstones(List.of(3L));
+        Todo todo = new Todo(null, "changed todo", false, LocalDateTime.parse("2019/09/20 01:01:01", DATETIME_FORMAT));
+        todoRepository.create(todo);
+
+        // run
+        TodoChanges firstPage = todoChangeMapper.findChanges(initial.getNext(), 2);
+        TodoChanges secondPage = todoChangeMapper.findChanges(firstPage.getNext(), 2);
+        TodoChanges unchanged = todoChangeMapper.findChanges(secondPage.getNext(), 2);
+
+        // check
+        assertThat(initial.isReset()).isTrue();
+        assertThat(initial.getTodos()).extracting(Todo::getTodoId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(initial.getDeletedIds()).isEmpty();
+        assertThat(firstPage.isReset()).isFalse();
+        assertThat(firstPage.getTodos()).extracting(Todo::getTodoId, Todo::isFinished).containsExactly(tuple(1L, true));
+        assertThat(firstPage.getDeletedIds()).containsExactly(3L);
+        assertThat(firstPage.isHasMore()).isTrue();
+        assertThat(secondPage.getTodos()).extracting(Todo::getTodoId).containsExactly(todo.getTodoId());
+        assertThat(secondPage.getDeletedIds()).isEmpty();
+        assertThat(secondPage.isHasMore()).isFalse();
+        assertThat(secondPage.getNext().getVersions()).containsExactly(todo.getVersion());
+        assertThat(unchanged.getTodos()).isEmpty();
+        assertThat(unchanged.getNext().getVersions()).isEqualTo(secondPage.getNext().getVersions());
+    }
+
+    @Test
+    @DisplayName("保持期間を過ぎた削除履歴が消され、それを必要とするトークンではリセットされることを確認する(Repository)")
+    void testPurgeTombstones() {
+        // setup
+        TodoChanges initial = todoChangeMapper.findChanges(null, 100);
+        todoRepository.deleteById(3L);
+        todoRepository.createTombstones(List.of(3L));
+        TodoChanges afterFirstDelete = todoChangeMapper.findChanges(initial.getNext(), 100);
+        todoRepository.deleteById(2L);
+        todoRepository.createTombstones(List.of(2L));
+        jdbcOperations.update("UPDATE todo_tombstone SET deleted_at = '2019-09-20 00:00:00' WHERE todo_id = 3",
+                new MapSqlParameterSource());
+        Todo todo = new Todo(null, "changed todo", false, LocalDateTime.parse("2019/09/20 01:01:01", DATETIME_FORMAT));
+        todoRepository.create(todo);
+
+        // run
+        long purgedCount = todoChangeMapper.purgeTombstones(LocalDateTime.parse("2019/09/21 00:00:00", DATETIME_FORMAT));
+        TodoChanges stale = todoChangeMapper.findChanges(initial.getNext(), 1);
+        TodoChanges staleRest = todoChangeMapper.findChanges(stale.getNext(), 100);
+        TodoChanges current = todoChangeMapper.findChanges(afterFirstDelete.getNext(), 100);
+
+        // check
+        assertThat(purgedCount).isEqualTo(1);
+        assertThat(afterFirstDelete.getDeletedIds()).containsExactly(3L);
+        assertThat(stale.isReset()).isTrue();
+        assertThat(stale.getTodos()).extracting(Todo::getTodoId).containsExactly(1L);
+        assertThat(stale.isHasMore()).isTrue();
+        assertThat(staleRest.isReset()).isFalse();
+        assertThat(staleRest.getTodos()).extracting(Todo::getTodoId).containsExactly(todo.getTodoId());
+        assertThat(staleRest.getDeletedIds()).isEmpty();
+        assertThat(current.isReset()).isFalse();
+        assertThat(current.getTodos()).extracting(Todo::getTodoId).containsExactly(todo.getTodoId());
+        assertThat(current.getDeletedIds()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("完了済の古いTodoがアーカイブに移され、includeArchived指定時のみ取得できることを確認する(Repository)")
+    void testArchive() {
+        // setup
+        LocalDateTime createdBefore = LocalDateTime.parse("2019/09/19 03:00:00", DATETIME_FORMAT);
+        todoRepository.updateById(1L);
+
+        // run
+        List<Long> archivableIds = todoRepository.findArchivableIds(createdBefore, 10);
+        long archivedCount = todoRepository.archiveAllById(List.of(2L, 3L));
+        todoRepository.deleteAllById(List.of(2L));
+        TodoCriteria criteria = new TodoCriteria(null, null, null, TodoSort.CREATED_AT_ASC, true);
+        List<Todo> liveTodos = todoRepository.findByCriteria(TodoCriteria.empty(), null, null);
+        List<Todo> firstPage = todoRepository.findByCriteria(criteria, null, 2);
+        List<Todo> secondPage = todoRepository.findByCriteria(criteria, TodoCursor.of(firstPage.get(1)), 2);
+
+        // check
+        assertThat(archivableIds).containsExactly(1L, 2L);
+        assertThat(archivedCount).isEqualTo(1);
+        assertThat(liveTodos).extracting(Todo::getTodoId).containsExactly(1L, 3L);
+        assertThat(firstPage).extracting(Todo::getTodoId).containsExactly(1L, 2L);
+        assertThat(secondPage).extracting(Todo::getTodoId).containsExactly(3L);
+        assertThat(secondPage.get(0).getTodoTitle()).isEqualTo("sample todo 3");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TodoResourceMapperTest {
+
+    private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("uuuu/MM/dd HH:mm:ss");
+
+    private final TodoResourceMapper todoResourceMapper = new TodoResourceMapper();
+
+    @Test
+    @DisplayName("TodoからTodoResourceへ全項目が変換されることを確認する(Mapper)")
+    void testToResource() {
+        // setup
+        Todo todo = new Todo(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT), 7L);
+
+        // run
+        TodoResource actualTodoResource = todoResourceMapper.toResource(todo);
+
+        // check
+        assertThat(actualTodoResource).isEqualToComparingFieldByField(todo);
+    }
+
+    @Test
+    @DisplayName("TodoResourceからTodoへ全項目が変換されることを確認する(Mapper)")
+    void testToTodo() {
+        // setup
+        TodoResource todoResource = new TodoResource(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT), 7L);
+
+        // run
+        Todo actualTodo = todoResourceMapper.toTodo(todoResource);
+
+        // check
+        assertThat(actualTodo).isEqualToComparingFieldByField(todoResource);
+    }
+
+    @Test
+    @DisplayName("未設定の項目はnullのまま変換されることを確認する(Mapper)")
+    void testToTodoWithNullFields() {
+        // setup
+        TodoResource todoResource = new TodoResource();
+        todoResource.setTodoTitle("sample todo 4");
+
+        // run
+        Todo actualTodo = todoResourceMapper.toTodo(todoResource);
+
+        // check
+        assertThat(actualTodo).isEqualToComparingFieldByField(todoResource);
+        assertThat(actualTodo.getTodoId()).isNull();
+        assertThat(actualTodo.getCreatedAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Todoの一覧が順序を保ってTodoResourceの一覧に変換されることを確認する(Mapper)")
+    void testToResources() {
+        // setup
+        Todo todo1 = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo todo2 = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+
+        // run
+        List<TodoResource> actualTodoResources = todoResourceMapper.toResources(Arrays.asList(todo1, todo2));
+
+        // check
+        assertThat(actualTodoResources).extracting(TodoResource::getTodoId).containsExactly(1L, 2L);
+        assertThat(actualTodoResources.get(1)).isEqualToComparingFieldByField(todo2);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.times;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.example.tutorial.common.cache.CacheConfig;
+import com.example.tutorial.common.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+@SpringBootTest(classes = { TodoServiceImpl.class, CacheConfig.class, TodoServiceCacheTest.TransactionConfig.class })
+public class TodoServiceCacheTest {
+
+    private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("uuuu/MM/dd HH:mm:ss");
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private TodoRepository todoRepository;
+
+    @MockBean
+    private TodoTitleIndex todoTitleIndex;
+
+    @MockBean
+    private TodoChangeFeed todoChangeFeed;
+
+    @MockBean
+    private TodoChangeLog todoChangeLog;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("2回目以降のfindOneはキャッシュから返されることを確認する(Cache)")
+    void testFindOneIsCached() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        CacheStats before = stats(TodoServiceImpl.TODO_CACHE);
+
+        // setup mocks
+        given(todoRepository.findById(1L)).willReturn(Optional.of(expectTodo));
+
+        // run
+        todoService.findOne(1L);
+        Todo actualTodo = todoService.findOne(1L);
+
+        // check
+        then(todoRepository).should(times(1)).findById(1L);
+        assertThat(actualTodo).isEqualToComparingFieldByField(expectTodo);
+        CacheStats after = stats(TodoServiceImpl.TODO_CACHE);
+        assertThat(after.hitCount() - before.hitCount()).isEqualTo(1);
+        assertThat(after.missCount() - before.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("キャッシュに載せるTodoは読み取り専用でないトランザクションで読み込まれることを確認する(Cache)")
+    void testCachedReadsUsePrimary() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        List<Boolean> readWriteFlags = new ArrayList<>();
+
+        // setup mocks
+        given(todoRepository.findById(1L)).willAnswer(invocation -> {
+            readWriteFlags.add(TransactionSynchronizationManager.isActualTransactionActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return Optional.of(expectTodo);
+        });
+        given(todoRepository.findAll()).willAnswer(invocation -> {
+            readWriteFlags.add(TransactionSynchronizationManager.isActualTransactionActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return List.of(expectTodo);
+        });
+
+        // run
+        todoService.findOne(1L);
+        todoService.findSnapshot();
+
+        // check
+        assertThat(readWriteFlags).containsExactly(true, true);
+    }
+
+    @Test
+    @DisplayName("finish後のfindOneは完了済のTodoをキャッシュから返すことを確認する(Cache)")
+    void testFinishUpdatesCache() {
+        // setup
+        Todo unfinishedTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo storedTodo = new Todo(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoRepository.findById(1L)).willReturn(Optional.of(unfinishedTodo)).willReturn(Optional.of(storedTodo));
+        given(todoRepository.updateById(1L)).willReturn(1L);
+
+        // run
+        todoService.findOne(1L);
+        todoService.finish(1L);
+        Todo actualTodo = todoService.findOne(1L);
+
+        // check
+        then(todoRepository).should(times(2)).findById(1L);
+        assertThat(actualTodo.isFinished()).isTrue();
+    }
+
+    @Test
+    @DisplayName("delete後のfindOneはキャッシュを使わずに取得されることを確認する(Cache)")
+    void testDeleteEvictsCache() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoRepository.findById(1L)).willReturn(Optional.of(expectTodo)).willReturn(Optional.empty());
+        given(todoRepository.findByIdForUpdate(1L)).willReturn(Optional.of(expectTodo));
+        given(todoRepository.deleteById(1L)).willReturn(1L);
+
+        // run
+        todoService.findOne(1L);
+        todoService.delete(1L);
+
+        // check
+        assertThatThrownBy(() -> todoService.findOne(1L)).isInstanceOf(ResourceNotFoundException.class);
+        then(todoRepository).should(times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("ロールバックしたfinishはキャッシュを更新しないことを確認する(Cache)")
+    void testRolledBackFinishKeepsCache() {
+        // setup
+        Todo unfinishedTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo storedTodo = new Todo(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // setup mocks
+        given(todoRepository.findById(1L)).willReturn(Optional.of(unfinishedTodo)).willReturn(Optional.of(storedTodo));
+        given(todoRepository.updateById(1L)).willReturn(1L);
+
+        // run
+        todoService.findOne(1L);
+        transactionTemplate.executeWithoutResult(status -> {
+            todoService.finish(1L);
+            status.setRollbackOnly();
+        });
+        Todo actualTodo = todoService.findOne(1L);
+
+        // check
+        then(todoRepository).should(times(2)).findById(1L);
+        assertThat(actualTodo.isFinished()).isFalse();
+    }
+
+    @Test
+    @DisplayName("ロールバックしたdeleteはキャッシュを破棄しないことを確認する(Cache)")
+    void testRolledBackDeleteKeepsCache() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // setup mocks
+        given(todoRepository.findById(1L)).willReturn(Optional.of(expectTodo));
+        given(todoRepository.findByIdForUpdate(1L)).willReturn(Optional.of(expectTodo));
+        given(todoRepository.deleteById(1L)).willReturn(1L);
+
+        // run
+        todoService.findOne(1L);
+        transactionTemplate.executeWithoutResult(status -> {
+            todoService.delete(1L);
+            status.setRollbackOnly();
+        });
+        Todo actualTodo = todoService.findOne(1L);
+
+        // check
+        then(todoRepository).should(times(1)).findById(1L);
+        assertThat(actualTodo).isEqualToComparingFieldByField(expectTodo);
+    }
+
+    @Test
+    @DisplayName("archiveFinishedはアーカイブしたTodoのキャッシュだけを破棄することを確認する(Cache)")
+    void testArchiveEvictsArchivedTodos() {
+        // setup
+        LocalDateTime createdBefore = LocalDateTime.parse("2019/10/01 00:00:00", DATETIME_FORMAT);
+        Todo archivedTodo = new Todo(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo keptTodo = new Todo(2L, "sample todo 2", false, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoRepository.findById(1L)).willReturn(Optional.of(archivedTodo)).willReturn(Optional.empty());
+        given(todoRepository.findById(2L)).willReturn(Optional.of(keptTodo));
+        given(todoRepository.findArchivableIds(createdBefore, 10)).willReturn(List.of(1L));
+        given(todoRepository.findAllByIdForUpdate(List.of(1L))).willReturn(List.of(archivedTodo));
+
+        // run
+        todoService.findOne(1L);
+        todoService.findOne(2L);
+        int actualCount = todoService.archiveFinished(createdBefore, 10);
+
+        // check
+        assertThat(actualCount).isEqualTo(1);
+        assertThatThrownBy(() -> todoService.findOne(1L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(todoService.findOne(2L)).isSameAs(keptTodo);
+        then(todoRepository).should(times(2)).findById(1L);
+        then(todoRepository).should(times(1)).findById(2L);
+    }
+
+    @Test
+    @DisplayName("create後のfindSnapshotは一覧とバージョンを再取得することを確認する(Cache)")
+    void testCreateEvictsList() {
+        // setup
+        Todo expectTodo1 = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo expectTodo2 = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoRepository.findAll()).willReturn(Arrays.asList(expectTodo1))
+            .willReturn(Arrays.asList(expectTodo1, expectTodo2));
+        given(todoRepository.findAggregateVersion()).willReturn("1-1").willReturn("2-2");
+        given(todoRepository.incrementUnfinishedCount(1L, 5L)).willReturn(1L);
+        willAnswer(invocation -> {
+            invocation.<Todo>getArgument(0).setTodoId(2L);
+            return null;
+        }).given(todoRepository).create(any(Todo.class));
+
+        // run
+        todoService.findSnapshot();
+        todoService.findSnapshot();
+        todoService.create(new Todo(null, "sample todo 2", false, null));
+        TodoSnapshot actualSnapshot = todoService.findSnapshot();
+
+        // check
+        assertThat(actualSnapshot.getVersion()).isEqualTo("2-2");
+        assertThat(actualSnapshot.getTodos()).extracting(Todo::getTodoId).containsExactly(1L, 2L);
+        then(todoRepository).should(times(2)).findAll();
+    }
+
+    private CacheStats stats(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Cache target = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) target.getNativeCache()).stats();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableTransactionManagement
+    static class TransactionConfig {
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new InMemoryTransactionManager();
+        }
+    }
+}
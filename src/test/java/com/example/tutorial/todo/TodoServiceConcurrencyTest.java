@@ -0,0 +1,129 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.example.tutorial.common.exception.BusinessException;
+
+@SpringBootTest
+public class TodoServiceConcurrencyTest {
+
+    private static final int THREAD_COUNT = 16;
+
+    private static final long MAX_UNFINISHED_COUNT = 5;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> createdTodoIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        createdTodoIds.forEach(todoService::delete);
+    }
+
+    @Test
+    @DisplayName("並行してcreateしても未完了のTodoが上限を超えないことを確認する(Service)")
+    void testCreateConcurrently() throws Exception {
+        // setup
+        long unfinishedCount = todoRepository.countByFinished(false);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<Todo>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                Callable<Todo> create = () -> {
+                    start.await();
+                    return todoService.create(new Todo(null, "concurrent todo", false, null));
+                };
+                futures.add(executor.submit(create));
+            }
+
+            // run
+            start.countDown();
+            int rejected = 0;
+            for (Future<Todo> future : futures) {
+                try {
+                    createdTodoIds.add(future.get().getTodoId());
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BusinessException.class);
+                    rejected++;
+                }
+            }
+
+            // check
+            assertThat(createdTodoIds).hasSize((int) (MAX_UNFINISHED_COUNT - unfinishedCount));
+            assertThat(rejected).isEqualTo(THREAD_COUNT - createdTodoIds.size());
+            assertThat(todoRepository.countByFinished(false)).isEqualTo(MAX_UNFINISHED_COUNT);
+            assertThat(todoRepository.findUnfinishedCount()).isEqualTo(MAX_UNFINISHED_COUNT);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("未コミットの削除より後の削除は先にコミットされず、差分同期で削除を取りこぼさないことを確認する(Service)")
+    void testChangesNotSkippedByInterleavedTransactions() throws Exception {
+        // setup
+        // finished todos are deleted without touching the unfinished counter, which would serialize the two anyway
+        Todo firstTodo = new Todo(null, "interleaved todo 1", true, LocalDateTime.now());
+        Todo secondTodo = new Todo(null, "interleaved todo 2", true, LocalDateTime.now());
+        todoRepository.create(firstTodo);
+        todoRepository.create(secondTodo);
+        TodoChanges latest = todoService.findChanges(null, 1000);
+        while (latest.isHasMore()) {
+            latest = todoService.findChanges(latest.getNext(), 1000);
+        }
+        TodoSyncToken since = latest.getNext();
+        CountDownLatch deleted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> firstDelete = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                todoService.delete(firstTodo.getTodoId());
+                deleted.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(deleted.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<?> secondDelete = executor.submit(() -> todoService.delete(secondTodo.getTodoId()));
+
+            // run
+            Thread.sleep(200);
+            TodoChanges whileDeleting = todoService.findChanges(since, 100);
+            commit.countDown();
+            firstDelete.get();
+            secondDelete.get();
+            TodoChanges afterCommit = todoService.findChanges(whileDeleting.getNext(), 100);
+
+            // check
+            assertThat(whileDeleting.getDeletedIds()).isEmpty();
+            assertThat(afterCommit.getDeletedIds()).containsExactly(firstTodo.getTodoId(), secondTodo.getTodoId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import com.example.tutorial.common.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(classes = { TodoServiceImpl.class, TodoServiceMetrics.class, SimpleMeterRegistry.class })
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+public class TodoServiceMetricsTest {
+
+    private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("uuuu/MM/dd HH:mm:ss");
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private TodoRepository todoRepository;
+
+    @MockBean
+    private TodoTitleIndex todoTitleIndex;
+
+    @MockBean
+    private TodoChangeFeed todoChangeFeed;
+
+    @MockBean
+    private TodoChangeLog todoChangeLog;
+
+    @Test
+    @DisplayName("Serviceの呼び出しがメソッド毎のタイマーに記録されることを確認する(Metrics)")
+    void testTimer() {
+        // setup mocks
+        given(todoRepository.findById(1L)).willReturn(Optional.of(
+                new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT))));
+
+        // run
+        todoService.findOne(1L);
+        todoService.findOne(1L);
+
+        // check
+        Timer timer = meterRegistry.find(TodoServiceMetrics.TIMER_NAME)
+                .tags("method", "findOne", "exception", "none").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(2L);
+        assertThat(timer.takeSnapshot().percentileValues()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Serviceが例外を返した場合に例外の種類毎にカウントされることを確認する(Metrics)")
+    void testFailureCounter() {
+        // setup mocks
+        given(todoRepository.findById(99L)).willReturn(Optional.empty());
+
+        // run
+        assertThatThrownBy(() -> todoService.findOne(99L)).isInstanceOf(ResourceNotFoundException.class);
+
+        // check
+        assertThat(meterRegistry.find(TodoServiceMetrics.FAILURE_COUNTER_NAME)
+                .tags("method", "findOne", "exception", "ResourceNotFoundException").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.find(TodoServiceMetrics.TIMER_NAME)
+                .tags("method", "findOne", "exception", "ResourceNotFoundException").timer().count())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("同じメソッドの呼び出しでメーターが再登録されないことを確認する(Metrics)")
+    void testMetersAreRegisteredOnce() {
+        // setup mocks
+        given(todoRepository.findAll()).willReturn(List.of());
+
+        // run
+        todoService.findAll();
+        Timer firstTimer = meterRegistry.get(TodoServiceMetrics.TIMER_NAME).tags("method", "findAll").timer();
+        todoService.findAll();
+
+        // check
+        assertThat(meterRegistry.get(TodoServiceMetrics.TIMER_NAME).tags("method", "findAll").timers())
+                .containsExactly(firstTimer);
+        assertThat(firstTimer.count()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("未完了のTodoの件数がゲージとして参照できることを確認する(Metrics)")
+    void testUnfinishedGauge() {
+        // setup mocks
+        given(todoRepository.findUnfinishedCount()).willReturn(4L);
+
+        // run
+        double actualValue = meterRegistry.get(TodoServiceMetrics.UNFINISHED_GAUGE_NAME).gauge().value();
+
+        // check
+        assertThat(actualValue).isEqualTo(4.0);
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.tutorial.todo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +21,8 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import com.example.tutorial.common.exception.BusinessException;
+import com.example.tutorial.common.exception.PreconditionFailedException;
 
 @SpringBootTest(classes = TodoServiceImpl.class) // (1)
 public class TodoServiceTest {
@@ -29,6 +35,15 @@ public class TodoServiceTest {
     @MockBean
     private TodoRepository todoRepository; // (3)
 
+    @MockBean
+    private TodoTitleIndex todoTitleIndex;
+
+    @MockBean
+    private TodoChangeFeed todoChangeFeed;
+
+    @MockBean
+    private TodoChangeLog todoChangeLog;
+
     @Test
     @DisplayName("全Todoが取得できることを確認する(service)")
     void testFindAll() {
@@ -48,6 +63,65 @@ public class TodoServiceTest {
         assertThat(actualTodos).usingFieldByFieldElementComparator().containsExactly(expectTodo1, expectTodo2, expectTodo3);
     }
 
+    @Test
+    @DisplayName("指定件数より多く取得できた場合に次ページのカーソルが返ることを確認する(service)")
+    void testFindPage() {
+        // setup
+        Todo expectTodo1 = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo expectTodo2 = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+        Todo expectTodo3 = new Todo(3L, "sample todo 3", false, LocalDateTime.parse("2019/09/19 03:03:03", DATETIME_FORMAT));
+        TodoCriteria criteria = TodoCriteria.empty();
+
+        // setup mocks
+        given(todoRepository.findByCriteria(criteria, null, 3)).willReturn(Arrays.asList(expectTodo1, expectTodo2, expectTodo3));
+
+        // run
+        TodoPage actualPage = todoService.findPage(criteria, null, 2);
+
+        // check
+        then(todoRepository).should(times(1)).findByCriteria(criteria, null, 3);
+        assertThat(actualPage.getTodos()).usingFieldByFieldElementComparator().containsExactly(expectTodo1, expectTodo2);
+        assertThat(actualPage.getNext()).isEqualToComparingFieldByField(TodoCursor.of(expectTodo2));
+    }
+
+    @Test
+    @DisplayName("最終ページでは次ページのカーソルが返らないことを確認する(service)")
+    void testFindLastPage() {
+        // setup
+        Todo expectTodo3 = new Todo(3L, "sample todo 3", false, LocalDateTime.parse("2019/09/19 03:03:03", DATETIME_FORMAT));
+        TodoCursor after = new TodoCursor(LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT), 2L);
+        TodoCriteria criteria = new TodoCriteria(false, null, null, TodoSort.CREATED_AT_ASC);
+
+        // setup mocks
+        given(todoRepository.findByCriteria(criteria, after, 3)).willReturn(List.of(expectTodo3));
+
+        // run
+        TodoPage actualPage = todoService.findPage(criteria, after, 2);
+
+        // check
+        assertThat(actualPage.getTodos()).usingFieldByFieldElementComparator().containsExactly(expectTodo3);
+        assertThat(actualPage.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("タイトル検索のヒット順にTodoが返り、取得できなかったTodoは除かれることを確認する(service)")
+    void testSearch() {
+        // setup
+        Todo expectTodo1 = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo expectTodo3 = new Todo(3L, "sample todo 3", false, LocalDateTime.parse("2019/09/19 03:03:03", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoTitleIndex.search("sample", 0, 3)).willReturn(new TodoTitleIndex.Hits(List.of(3L, 2L, 1L), 5));
+        given(todoRepository.findAllById(List.of(3L, 2L, 1L))).willReturn(List.of(expectTodo1, expectTodo3));
+
+        // run
+        TodoSearchResult actualResult = todoService.search("sample", 0, 3);
+
+        // check
+        assertThat(actualResult.getTodos()).usingFieldByFieldElementComparator().containsExactly(expectTodo3, expectTodo1);
+        assertThat(actualResult.getTotal()).isEqualTo(5);
+    }
+
     @Test
     @DisplayName("todoIdに対応するTodoが取得できることを確認する(Service)")
     void testFindOne() {
@@ -72,12 +146,14 @@ public class TodoServiceTest {
         Todo expectTodo = new Todo(null, "sample todo 4", false, null);
 
         // setup mocks
+        given(todoRepository.incrementUnfinishedCount(1L, 5L)).willReturn(1L);
         willDoNothing().given(todoRepository).create(expectTodo);
 
         // run
         todoService.create(expectTodo);
 
         // check
+        then(todoRepository).should(times(1)).incrementUnfinishedCount(1L, 5L);
         then(todoRepository).should(times(1)).create(
                 ArgumentMatchers.<Todo>argThat(
                         arg -> expectTodo.getTodoTitle().equals(arg.getTodoTitle())
@@ -87,6 +163,90 @@ public class TodoServiceTest {
                 );
     }
 
+    @Test
+    @DisplayName("複数のTodoがまとめて作成できることを確認する(service)")
+    void testCreateAll() {
+        // setup
+        List<Todo> expectTodos = List.of(new Todo(null, "sample todo 4", false, null),
+                new Todo(null, "sample todo 5", false, null));
+
+        // setup mocks
+        given(todoRepository.incrementUnfinishedCount(2L, 5L)).willReturn(1L);
+
+        // run
+        List<Todo> actualTodos = todoService.createAll(expectTodos);
+
+        // check
+        then(todoRepository).should(times(1)).incrementUnfinishedCount(2L, 5L);
+        then(todoRepository).should(times(1)).createAll(expectTodos);
+        assertThat(actualTodos).allMatch(todo -> !todo.isFinished() && Objects.nonNull(todo.getCreatedAt()));
+    }
+
+    @Test
+    @DisplayName("まとめて作成すると未完了のTodoが上限を超える場合は1件も作成されないことを確認する(service)")
+    void testCreateAllOverLimit() {
+        // setup
+        List<Todo> expectTodos = List.of(new Todo(null, "sample todo 4", false, null),
+                new Todo(null, "sample todo 5", false, null));
+
+        // setup mocks
+        given(todoRepository.incrementUnfinishedCount(2L, 5L)).willReturn(0L);
+
+        // run & check
+        assertThatThrownBy(() -> todoService.createAll(expectTodos)).isInstanceOf(BusinessException.class);
+        then(todoRepository).should(never()).createAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("上限に収まる先頭のTodoだけが作成されることを確認する(service)")
+    void testCreateAvailable() {
+        // setup
+        Todo expectTodo4 = new Todo(null, "sample todo 4", false, null);
+        Todo expectTodo5 = new Todo(null, "sample todo 5", false, null);
+
+        // setup mocks
+        given(todoRepository.findUnfinishedCountForUpdate()).willReturn(4L);
+        given(todoRepository.incrementUnfinishedCount(1L, 5L)).willReturn(1L);
+
+        // run
+        List<Todo> actualTodos = todoService.createAvailable(List.of(expectTodo4, expectTodo5));
+
+        // check
+        then(todoRepository).should(times(1)).incrementUnfinishedCount(1L, 5L);
+        then(todoRepository).should(times(1)).createAll(List.of(expectTodo4));
+        assertThat(actualTodos).containsExactly(expectTodo4);
+        assertThat(expectTodo4.getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("未完了のTodoが上限に達している場合はまとめて作成しても1件も作成されないことを確認する(service)")
+    void testCreateAvailableNone() {
+        // setup mocks
+        given(todoRepository.findUnfinishedCountForUpdate()).willReturn(5L);
+
+        // run
+        List<Todo> actualTodos = todoService.createAvailable(List.of(new Todo(null, "sample todo 4", false, null)));
+
+        // check
+        then(todoRepository).should(never()).incrementUnfinishedCount(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+        then(todoRepository).should(never()).createAll(ArgumentMatchers.any());
+        assertThat(actualTodos).isEmpty();
+    }
+
+    @Test
+    @DisplayName("未完了のTodoが上限に達している場合は作成できないことを確認する(service)")
+    void testCreateOverLimit() {
+        // setup
+        Todo expectTodo = new Todo(null, "sample todo 4", false, null);
+
+        // setup mocks
+        given(todoRepository.incrementUnfinishedCount(1L, 5L)).willReturn(0L);
+
+        // run & check
+        assertThatThrownBy(() -> todoService.create(expectTodo)).isInstanceOf(BusinessException.class);
+        then(todoRepository).should(never()).create(ArgumentMatchers.any());
+    }
+
     @Test
     @DisplayName("todoId=1のfinishedがtrueになることを確認する(service)")
     void testFinish() {
@@ -103,6 +263,79 @@ public class TodoServiceTest {
         // check
         then(todoRepository).should(times(1)).findById(ArgumentMatchers.longThat(arg -> arg == expectTodo.getTodoId()));
         then(todoRepository).should(times(1)).updateById(ArgumentMatchers.longThat(arg -> arg == 1L));
+        then(todoRepository).should(times(1)).decrementUnfinishedCount(1L);
+    }
+
+    @Test
+    @DisplayName("他のトランザクションで完了済になったTodoはfinishできないことを確認する(service)")
+    void testFinishConcurrentlyFinished() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoRepository.findById(1L)).willReturn(Optional.of(expectTodo));
+        given(todoRepository.updateById(1L)).willReturn(0L);
+
+        // run & check
+        assertThatThrownBy(() -> todoService.finish(1L)).isInstanceOf(BusinessException.class);
+        then(todoRepository).should(never()).decrementUnfinishedCount(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("versionが一致する場合は1回の条件付き更新でfinishできることを確認する(service)")
+    void testFinishWithVersion() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", true, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT), 8L);
+
+        // setup mocks
+        given(todoRepository.updateByIdAndVersion(1L, 7L)).willReturn(1L);
+        given(todoRepository.findById(1L)).willReturn(Optional.of(expectTodo));
+
+        // run
+        Todo actualTodo = todoService.finish(1L, 7L);
+
+        // check
+        then(todoRepository).should(times(1)).updateByIdAndVersion(1L, 7L);
+        then(todoRepository).should(times(1)).decrementUnfinishedCount(1L);
+        assertThat(actualTodo).isEqualToComparingFieldByField(expectTodo);
+    }
+
+    @Test
+    @DisplayName("versionが一致しない場合はfinishできないことを確認する(service)")
+    void testFinishWithStaleVersion() {
+        // setup
+        Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT), 8L);
+
+        // setup mocks
+        given(todoRepository.updateByIdAndVersion(1L, 7L)).willReturn(0L);
+        given(todoRepository.findById(1L)).willReturn(Optional.of(expectTodo));
+
+        // run & check
+        assertThatThrownBy(() -> todoService.finish(1L, 7L)).isInstanceOf(PreconditionFailedException.class);
+        then(todoRepository).should(never()).decrementUnfinishedCount(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("まとめてfinishした結果がID毎に返されることを確認する(service)")
+    void testFinishAll() {
+        // setup
+        Todo expectTodo1 = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo expectTodo2 = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoRepository.findAllByIdForUpdate(List.of(1L, 2L, 99L))).willReturn(List.of(expectTodo1, expectTodo2));
+        given(todoRepository.updateAllById(List.of(1L))).willReturn(1L);
+
+        // run
+        List<TodoBulkResult> actualResults = todoService.finishAll(List.of(1L, 2L, 99L, 1L));
+
+        // check
+        then(todoRepository).should(times(1)).updateAllById(List.of(1L));
+        then(todoRepository).should(times(1)).decrementUnfinishedCount(1L);
+        assertThat(actualResults).extracting(TodoBulkResult::getTodoId, TodoBulkResult::getStatus)
+            .containsExactly(tuple(1L, TodoBulkResult.Status.DONE),
+                    tuple(2L, TodoBulkResult.Status.ALREADY_FINISHED),
+                    tuple(99L, TodoBulkResult.Status.NOT_FOUND));
     }
 
     @Test
@@ -112,14 +345,38 @@ public class TodoServiceTest {
         Todo expectTodo = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
 
         // setup mocks
-        given(todoRepository.findById(1L)).willReturn(Optional.of(expectTodo));
+        given(todoRepository.findByIdForUpdate(1L)).willReturn(Optional.of(expectTodo));
         given(todoRepository.deleteById(1L)).willReturn(1L);
 
         // run
         todoService.delete(1L);
 
         // check
-        then(todoRepository).should(times(1)).findById(ArgumentMatchers.longThat(arg -> arg == expectTodo.getTodoId()));
+        then(todoRepository).should(times(1)).findByIdForUpdate(ArgumentMatchers.longThat(arg -> arg == expectTodo.getTodoId()));
         then(todoRepository).should(times(1)).deleteById(ArgumentMatchers.longThat(arg -> arg == 1L));
+        then(todoRepository).should(times(1)).decrementUnfinishedCount(1L);
+    }
+
+    @Test
+    @DisplayName("まとめてdeleteした結果がID毎に返され未完了件数が減算されることを確認する(service)")
+    void testDeleteAll() {
+        // setup
+        Todo expectTodo1 = new Todo(1L, "sample todo 1", false, LocalDateTime.parse("2019/09/19 01:01:01", DATETIME_FORMAT));
+        Todo expectTodo2 = new Todo(2L, "sample todo 2", true, LocalDateTime.parse("2019/09/19 02:02:02", DATETIME_FORMAT));
+
+        // setup mocks
+        given(todoRepository.findAllByIdForUpdate(List.of(1L, 2L, 99L))).willReturn(List.of(expectTodo1, expectTodo2));
+        given(todoRepository.deleteAllById(ArgumentMatchers.anyList())).willReturn(2L);
+
+        // run
+        List<TodoBulkResult> actualResults = todoService.deleteAll(List.of(1L, 2L, 99L));
+
+        // check
+        then(todoRepository).should(times(1)).deleteAllById(ArgumentMatchers.argThat(arg -> arg.containsAll(List.of(1L, 2L)) && arg.size() == 2));
+        then(todoRepository).should(times(1)).decrementUnfinishedCount(1L);
+        assertThat(actualResults).extracting(TodoBulkResult::getTodoId, TodoBulkResult::getStatus)
+            .containsExactly(tuple(1L, TodoBulkResult.Status.DONE),
+                    tuple(2L, TodoBulkResult.Status.DONE),
+                    tuple(99L, TodoBulkResult.Status.NOT_FOUND));
     }
 }
\ No newline at end of file
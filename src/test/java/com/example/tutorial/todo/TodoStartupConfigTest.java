@@ -0,0 +1,31 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:faststartuptest")
+@ActiveProfiles("fast-startup")
+@DirtiesContext
+public class TodoStartupConfigTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    @DisplayName("遅延初期化が有効でも/todosの処理に必要なBeanは起動時に生成されることを確認する(fast-startup)")
+    void testHotPathBeansAreEager() {
+        // check
+        assertThat(beanFactory.getBeanDefinition("todoServiceImpl").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("todoController").isLazyInit()).isFalse();
+        assertThat(beanFactory.containsSingleton("todoServiceImpl")).isTrue();
+        assertThat(beanFactory.containsSingleton("todoController")).isTrue();
+        assertThat(beanFactory.getBeanDefinition("startupReporter").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBean(TodoService.class).findAll(TodoCriteria.empty())).isNotEmpty();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.tutorial.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TodoTitleIndexTest {
+
+    private final TodoTitleIndex todoTitleIndex = new TodoTitleIndex();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("完全一致・前方一致・部分一致の順に、同点は新しいTodoから並ぶことを確認する(Index)")
+    void testRanking() {
+        // setup
+        todoTitleIndex.add(todo(1L, "buy milk"));
+        todoTitleIndex.add(todo(2L, "buy buttermilk"));
+        todoTitleIndex.add(todo(3L, "milkshake"));
+        todoTitleIndex.add(todo(4L, "milk the cow"));
+        todoTitleIndex.add(todo(5L, "write report"));
+
+        // run
+        TodoTitleIndex.Hits actualHits = todoTitleIndex.search("Milk", 0, 10);
+
+        // check
+        assertThat(actualHits.getTodoIds()).containsExactly(4L, 1L, 3L, 2L);
+        assertThat(actualHits.getTotal()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("複数の検索語は全てを含むTodoだけに一致し、日本語・全角も部分一致で検索できることを確認する(Index)")
+    void testMultipleTermsAndNormalization() {
+        // setup
+        todoTitleIndex.add(todo(1L, "牛乳を買う"));
+        todoTitleIndex.add(todo(2L, "ＴＯＤＯ 牛乳を買う"));
+        todoTitleIndex.add(todo(3L, "todo パンを買う"));
+
+        // run & check
+        assertThat(todoTitleIndex.search("乳を", 0, 10).getTodoIds()).containsExactly(2L, 1L);
+        assertThat(todoTitleIndex.search("todo 買う", 0, 10).getTodoIds()).containsExactly(3L, 2L);
+        assertThat(todoTitleIndex.search("t", 0, 10).getTodoIds()).containsExactly(3L, 2L);
+        assertThat(todoTitleIndex.search("乳パ", 0, 10).getTodoIds()).isEmpty();
+        assertThat(todoTitleIndex.search(" ! ", 0, 10).getTodoIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("offset・limitで検索結果をページングでき、総件数は全ヒット数となることを確認する(Index)")
+    void testPaging() {
+        // setup
+        for (long todoId = 1; todoId <= 7; todoId++) {
+            todoTitleIndex.add(todo(todoId, "todo " + todoId));
+        }
+
+        // run
+        TodoTitleIndex.Hits actualFirstPage = todoTitleIndex.search("todo", 0, 3);
+        TodoTitleIndex.Hits actualLastPage = todoTitleIndex.search("todo", 6, 3);
+
+        // check
+        assertThat(actualFirstPage.getTodoIds()).containsExactly(7L, 6L, 5L);
+        assertThat(actualLastPage.getTodoIds()).containsExactly(1L);
+        assertThat(actualLastPage.getTotal()).isEqualTo(7);
+        assertThat(todoTitleIndex.search("todo", 10, 3).getTodoIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("削除したTodoが検索されず、削除が多くなると索引が詰め直されることを確認する(Index)")
+    void testRemove() {
+        // setup
+        for (long todoId = 1; todoId <= 3000; todoId++) {
+            todoTitleIndex.add(todo(todoId, "todo " + todoId));
+        }
+
+        // run
+        for (long todoId = 1; todoId <= 2990; todoId++) {
+            todoTitleIndex.remove(todoId);
+        }
+
+        // check
+        assertThat(todoTitleIndex.size()).isEqualTo(10);
+        assertThat(todoTitleIndex.search("todo", 0, 100).getTodoIds()).hasSize(10).first().isEqualTo(3000L);
+        assertThat(todoTitleIndex.search("2999", 0, 100).getTodoIds()).containsExactly(2999L);
+        assertThat(todoTitleIndex.search("1", 0, 100).getTodoIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("トランザクション中の追加・削除はコミット後に反映されることを確認する(Index)")
+    void testAfterCommit() {
+        // setup
+        todoTitleIndex.add(todo(1L, "old todo"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // run
+        todoTitleIndex.addAfterCommit(List.of(todo(2L, "new todo")));
+        todoTitleIndex.removeAfterCommit(List.of(1L));
+
+        // check
+        assertThat(todoTitleIndex.search("todo", 0, 10).getTodoIds()).containsExactly(1L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(todoTitleIndex.search("todo", 0, 10).getTodoIds()).containsExactly(2L);
+    }
+
+    private static Todo todo(Long todoId, String todoTitle) {
+        return new Todo(todoId, todoTitle, false, null);
+    }
+}
@@ -1,3 +1,4 @@
 INSERT INTO todo (todo_title, finished, created_at ) VALUES ('sample todo 1', false, '2019-09-19 01:01:01' )
 INSERT INTO todo (todo_title, finished, created_at ) VALUES ('sample todo 2', true, '2019-09-19 02:02:02' )
-INSERT INTO todo (todo_title, finished, created_at ) VALUES ('sample todo 3', false, '2019-09-19 03:03:03' )
\ No newline at end of file
+INSERT INTO todo (todo_title, finished, created_at ) VALUES ('sample todo 3', false, '2019-09-19 03:03:03' )
+MERGE INTO todo_counter (counter_name, counter_value) KEY (counter_name) SELECT 'unfinished', COUNT(*) FROM todo WHERE finished = false
\ No newline at end of file